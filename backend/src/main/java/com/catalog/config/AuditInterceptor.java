@@ -0,0 +1,74 @@
+package com.catalog.config;
+
+import com.catalog.controller.AdminController;
+import com.catalog.controller.OwnerController;
+import com.catalog.controller.ProductImageController;
+import com.catalog.entity.AuditEvent;
+import com.catalog.security.UserPrincipal;
+import com.catalog.service.AuditLogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hands every write request (anything but GET, HEAD and OPTIONS) served by the admin, owner and
+ * product image controllers to the {@link AuditLogService} once it has completed, whether it
+ * succeeded or not. Runs on the request thread, but only builds the event and queues it.
+ */
+public class AuditInterceptor implements HandlerInterceptor {
+    
+    private static final Set<Class<?>> AUDITED_CONTROLLERS =
+            Set.of(AdminController.class, OwnerController.class, ProductImageController.class);
+    
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private final AuditLogService auditLogService;
+    
+    public AuditInterceptor(AuditLogService auditLogService) {
+        this.auditLogService = auditLogService;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (READ_METHODS.contains(request.getMethod()) || !(handler instanceof HandlerMethod)
+                || !AUDITED_CONTROLLERS.contains(((HandlerMethod) handler).getBeanType())) {
+            return;
+        }
+        
+        Long userId = null;
+        String userEmail = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            userId = principal.getId();
+            userEmail = principal.getEmail();
+        }
+        
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String action = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        
+        String target = null;
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map && !((Map<?, ?>) variables).isEmpty()) {
+            target = ((Map<?, ?>) variables).entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(", "));
+        }
+        
+        // An exception that escaped the controller is answered with 500 after this point
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        
+        auditLogService.record(new AuditEvent(LocalDateTime.now(), userId, userEmail, action, target, status,
+                request.getRemoteAddr()));
+    }
+}
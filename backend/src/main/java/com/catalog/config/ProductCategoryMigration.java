@@ -0,0 +1,79 @@
+package com.catalog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Moves databases created before products referenced categories by id onto the new schema.
+ * <p>
+ * Products used to store the category name in a free-text {@code category} column. Hibernate's
+ * schema update adds the {@code category_id} foreign key next to it; this fills it in once at
+ * startup, creating categories for names that only existed on products, and then drops the old
+ * column (which is {@code NOT NULL} and would reject new inserts). It does nothing on databases
+ * without the old column. Runs after the schema update and before the web server takes requests.
+ */
+@Component
+public class ProductCategoryMigration implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductCategoryMigration.class);
+    
+    private static final String LEGACY_COLUMN = "category";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            if (!hasLegacyColumn()) {
+                return;
+            }
+            
+            logger.info("Migrating products from category names to category ids");
+            int createdCategories = jdbcTemplate.update(
+                    "INSERT INTO categories (name, display_order, active, created_at, updated_at) " +
+                    "SELECT DISTINCT p.category, 0, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM products p " +
+                    "WHERE p.category IS NOT NULL AND NOT EXISTS (SELECT 1 FROM categories c WHERE c.name = p.category)");
+            int linkedProducts = jdbcTemplate.update(
+                    "UPDATE products SET category_id = (SELECT c.id FROM categories c WHERE c.name = products.category) " +
+                    "WHERE category_id IS NULL");
+            jdbcTemplate.execute("ALTER TABLE products DROP COLUMN " + LEGACY_COLUMN);
+            
+            logger.info("Linked {} products to their categories ({} categories created from product names)",
+                    linkedProducts, createdCategories);
+        } catch (Exception e) {
+            logger.error("Error migrating product categories", e);
+            throw new IllegalStateException("Product category migration failed", e);
+        }
+    }
+    
+    private boolean hasLegacyColumn() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Identifier case differs between databases (and H2 settings)
+            for (String table : new String[] {"products", "PRODUCTS"}) {
+                for (String column : new String[] {LEGACY_COLUMN, LEGACY_COLUMN.toUpperCase()}) {
+                    try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+                        if (columns.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
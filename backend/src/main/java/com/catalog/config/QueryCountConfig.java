@@ -0,0 +1,50 @@
+package com.catalog.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request SQL statement counting, for finding N+1 query patterns. Disabled unless
+ * {@code catalog.query-count.enabled=true}; it buffers every API response while active.
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+    
+    /**
+     * Wraps the data source everything uses (JPA and {@code JdbcTemplate} alike), so statements are
+     * counted at the connection whichever way they are sent.
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource) {
+                    return new QueryCountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public QueryCountFilter queryCountFilter() {
+        return new QueryCountFilter();
+    }
+    
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilterRegistration(QueryCountFilter queryCountFilter) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(queryCountFilter);
+        registration.addUrlPatterns("/api/*");
+        // Outermost, so statements issued by the security filters (user lookup) are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
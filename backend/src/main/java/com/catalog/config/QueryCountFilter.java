@@ -0,0 +1,70 @@
+package com.catalog.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Counts the SQL statements executed while serving each API request and reports them in the
+ * {@code X-Query-Count} response header. The response is buffered so the header can still be set
+ * after the controller (and any lazy loading during mapping) has finished. Event streams are left
+ * alone: buffering would hold back every event until the stream ends.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "X-Query-Count";
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+    
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        List<String> statements;
+        
+        QueryCountingDataSource.start();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            statements = QueryCountingDataSource.stop();
+        }
+        
+        wrapper.setHeader(HEADER, String.valueOf(statements.size()));
+        logger.debug("{} {} executed {} statement(s)", request.getMethod(), request.getRequestURI(), statements.size());
+        if (logger.isTraceEnabled()) {
+            statements.forEach(sql -> logger.trace("  {}", sql));
+        }
+        for (Listener listener : listeners) {
+            listener.onRequest(request.getMethod(), request.getRequestURI(), statements);
+        }
+        
+        wrapper.copyBodyToResponse();
+    }
+    
+    public interface Listener {
+        void onRequest(String method, String uri, List<String> statements);
+    }
+}
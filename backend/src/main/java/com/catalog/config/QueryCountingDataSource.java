@@ -0,0 +1,115 @@
+package com.catalog.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records every SQL statement prepared or executed on the current thread while recording is active,
+ * whether it comes from Hibernate or from a {@code JdbcTemplate}. Used by {@link QueryCountFilter}
+ * to attribute statements to the HTTP request that caused them.
+ * <p>
+ * A prepared statement counts once however many times it is executed, so a JDBC batch counts as
+ * one statement, as Hibernate's own batches do; plain statements count once per SQL string.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+    
+    private static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+    
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+    
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+    
+    public static void start() {
+        statements.set(new ArrayList<>());
+    }
+    
+    public static List<String> stop() {
+        List<String> recorded = statements.get();
+        statements.remove();
+        return recorded != null ? recorded : List.of();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+    
+    private static void record(Object sql) {
+        List<String> recorded = statements.get();
+        if (recorded != null && sql instanceof String) {
+            recorded.add((String) sql);
+        }
+    }
+    
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        default:
+                            break;
+                    }
+                    if (PREPARE_METHODS.contains(method.getName())) {
+                        record(args[0]);
+                    }
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement && "createStatement".equals(method.getName())) {
+                        return countingStatement((Statement) result, (Connection) proxy);
+                    }
+                    return result;
+                });
+    }
+    
+    private static Statement countingStatement(Statement target, Connection connection) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getConnection":
+                            return connection;
+                        default:
+                            break;
+                    }
+                    if (EXECUTE_METHODS.contains(method.getName()) && args != null && args.length > 0) {
+                        record(args[0]);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
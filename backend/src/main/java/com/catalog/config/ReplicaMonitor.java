@@ -0,0 +1,177 @@
+package com.catalog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks how far each replica is behind the primary.
+ * <p>
+ * In {@code heartbeat} mode the primary's {@code replica_heartbeat} row is stamped with the current
+ * time on every check and each replica's copy of that row is read back: the difference is the
+ * replica's lag, and the replicated stamp tells whether a given write has reached it. This works
+ * with any replication that copies the table. Replicas that are further behind than the allowed
+ * lag, or that cannot be queried, are taken out of rotation until they catch up.
+ * <p>
+ * In {@code none} mode replicas are only checked for reachability and are assumed current, which
+ * suits local setups with independent databases standing in for replicas.
+ */
+public class ReplicaMonitor {
+    
+    public static final String HEARTBEAT_MODE = "heartbeat";
+    public static final String NONE_MODE = "none";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaMonitor.class);
+    
+    private final JdbcTemplate primary;
+    private final Map<String, DataSource> replicaDataSources;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, ReplicaState> states = new LinkedHashMap<>();
+    private final List<String> replicaNames;
+    private final boolean heartbeat;
+    private final long maxLagMillis;
+    private ReplicaRoutingDataSource routingDataSource;
+    private boolean heartbeatTableReady;
+    
+    public ReplicaMonitor(DataSource primary, Map<String, DataSource> replicas, String lagCheck, long maxLagMillis) {
+        if (!HEARTBEAT_MODE.equals(lagCheck) && !NONE_MODE.equals(lagCheck)) {
+            throw new IllegalArgumentException("Unknown replica lag check '" + lagCheck + "', expected heartbeat or none");
+        }
+        this.primary = new JdbcTemplate(primary);
+        this.heartbeat = HEARTBEAT_MODE.equals(lagCheck);
+        this.maxLagMillis = maxLagMillis;
+        this.replicaDataSources = replicas;
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            template.setQueryTimeout(5);
+            this.replicas.put(name, template);
+            this.states.put(name, new ReplicaState());
+        });
+        this.replicaNames = List.copyOf(replicas.keySet());
+    }
+    
+    void setRoutingDataSource(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.replica.check-interval-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        if (heartbeat) {
+            stampPrimary(now);
+        }
+        
+        replicas.forEach((name, replica) -> {
+            ReplicaState state = states.get(name);
+            boolean wasAvailable = state.available;
+            try {
+                if (heartbeat) {
+                    Long replicated = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+                    state.replicatedUpTo = replicated != null ? replicated : 0;
+                    state.lagMillis = Math.max(0, now - state.replicatedUpTo);
+                    state.available = state.lagMillis <= maxLagMillis;
+                } else {
+                    replica.queryForObject("SELECT 1", Integer.class);
+                    state.lagMillis = 0;
+                    state.available = true;
+                }
+            } catch (Exception e) {
+                logger.debug("Replica {} check failed", name, e);
+                state.available = false;
+                state.lagMillis = -1;
+            }
+            
+            if (wasAvailable != state.available) {
+                if (state.available) {
+                    logger.info("Replica {} back in rotation (lag {} ms)", name, state.lagMillis);
+                } else {
+                    logger.warn("Replica {} out of rotation (lag {} ms, allowed {} ms)", name, state.lagMillis, maxLagMillis);
+                }
+            }
+        });
+        
+        if (routingDataSource != null) {
+            routingDataSource.expireStickiness();
+        }
+    }
+    
+    private void stampPrimary(long now) {
+        try {
+            if (!heartbeatTableReady) {
+                primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+                heartbeatTableReady = true;
+            }
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not write replica heartbeat on the primary: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Closes the replica connection pools; called on shutdown.
+     */
+    public void close() throws Exception {
+        for (DataSource dataSource : replicaDataSources.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    public Map<String, DataSource> getReplicaDataSources() {
+        return replicaDataSources;
+    }
+    
+    public List<String> getReplicaNames() {
+        return replicaNames;
+    }
+    
+    public boolean isAvailable(String replica) {
+        return states.get(replica).available;
+    }
+    
+    /**
+     * Whether the replica is in rotation and has applied everything the primary had at the given
+     * time. Always false without heartbeats, leaving stickiness to its time window.
+     */
+    public boolean hasCaughtUp(String replica, long writtenAt) {
+        ReplicaState state = states.get(replica);
+        return heartbeat && state.available && state.replicatedUpTo >= writtenAt;
+    }
+    
+    /**
+     * Replica name to lag in milliseconds ({@code -1} when unreachable).
+     */
+    public Map<String, Long> getLagMillis() {
+        Map<String, Long> lag = new LinkedHashMap<>();
+        states.forEach((name, state) -> lag.put(name, state.lagMillis));
+        return lag;
+    }
+    
+    public List<String> getAvailableReplicas() {
+        List<String> available = new ArrayList<>();
+        states.forEach((name, state) -> {
+            if (state.available) {
+                available.add(name);
+            }
+        });
+        return available;
+    }
+    
+    private static class ReplicaState {
+        
+        // Written by the scheduler thread, read by request threads
+        private volatile boolean available;
+        private volatile long replicatedUpTo;
+        private volatile long lagMillis = -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.catalog.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-replica routing, enabled with {@code catalog.replica.enabled=true}. The primary comes from
+ * the usual {@code spring.datasource.*} properties; replicas are listed in {@code catalog.replica.urls}
+ * and share {@code catalog.replica.username}/{@code password}.
+ * <p>
+ * {@code @Transactional(readOnly = true)} work goes to a replica (see {@link ReplicaRoutingDataSource}),
+ * everything else, including non-transactional lazy loading, stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    
+    @Value("${catalog.replica.urls}")
+    private String[] replicaUrls;
+    
+    @Value("${catalog.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    
+    @Value("${catalog.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    
+    @Value("${catalog.replica.lag-check:heartbeat}")
+    private String lagCheck;
+    
+    @Value("${catalog.replica.max-lag-ms:5000}")
+    private long maxLagMillis;
+    
+    @Value("${catalog.replica.sticky-ms:10000}")
+    private long stickyMillis;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaMonitor replicaMonitor(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(replicaUrls[i].trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaMonitor(primaryDataSource, replicas, lagCheck, maxLagMillis);
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaMonitor replicaMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaMonitor, stickyMillis);
+        Map<Object, Object> targets = new HashMap<>(replicaMonitor.getReplicaDataSources());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        replicaMonitor.setRoutingDataSource(routing);
+        return routing;
+    }
+    
+    /**
+     * The data source everything else (JPA, JDBC, SQL init) uses. Connections are fetched lazily so
+     * routing sees the transaction's read-only flag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+    
+    /**
+     * Hands connections back after each transaction instead of holding one for the whole
+     * (open-in-view) session, so a read-only transaction's replica connection is never reused for
+     * a later write in the same request.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,145 @@
+package com.catalog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * A replica is only used while {@link ReplicaMonitor} considers it current enough. After a user
+ * commits a read-write transaction, that user's reads stay on the primary until a replica has
+ * caught up with the commit (or, without lag checks, until the stickiness window has passed), so
+ * admins see their own edits immediately. Stickiness is per application instance and keyed by the
+ * authenticated user name; anonymous requests are never pinned.
+ * <p>
+ * The routing decision is made when a connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the
+ * connection is fetched before the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public static final String PRIMARY = "primary";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    // Bound for the duration of a read-write transaction once its commit hook is registered
+    private static final Object WRITE_MARKER = new Object();
+    
+    private final ReplicaMonitor monitor;
+    private final long stickyMillis;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    
+    public ReplicaRoutingDataSource(ReplicaMonitor monitor, long stickyMillis) {
+        this.monitor = monitor;
+        this.stickyMillis = stickyMillis;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(user);
+            return PRIMARY;
+        }
+        
+        String replica = chooseReplica(user);
+        if (replica == null) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return replica;
+    }
+    
+    private String chooseReplica(String user) {
+        Long lastWrite = user != null ? lastWriteByUser.get(user) : null;
+        if (lastWrite != null && System.currentTimeMillis() - lastWrite > stickyMillis) {
+            lastWriteByUser.remove(user, lastWrite);
+            lastWrite = null;
+        }
+        
+        List<String> candidates = new ArrayList<>();
+        for (String replica : monitor.getReplicaNames()) {
+            if (lastWrite == null ? monitor.isAvailable(replica) : monitor.hasCaughtUp(replica, lastWrite)) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+    
+    /**
+     * Records the commit time of the current read-write transaction for the user's stickiness.
+     */
+    private void trackWrite(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            return;
+        }
+        
+        TransactionSynchronizationManager.bindResource(WRITE_MARKER, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteByUser.put(user, System.currentTimeMillis());
+                logger.debug("Pinning reads for {} to the primary after a write", user);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+            }
+        });
+    }
+    
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+    
+    /**
+     * Drops stickiness entries older than the window; called by {@link ReplicaMonitor}.
+     */
+    void expireStickiness() {
+        long cutoff = System.currentTimeMillis() - stickyMillis;
+        lastWriteByUser.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+    
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+    
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+    
+    public int getPinnedUsers() {
+        return lastWriteByUser.size();
+    }
+}
@@ -56,9 +56,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/products").permitAll()
                 .requestMatchers("/api/products/{id}").permitAll()
+                .requestMatchers("/api/products/batch").permitAll()
+                .requestMatchers("/api/products/changes").permitAll()
+                .requestMatchers("/api/events").permitAll()
                 .requestMatchers("/api/products/categories").permitAll()
                 .requestMatchers("/api/products/in-stock").permitAll()
                 .requestMatchers("/api/products/{id}/images").permitAll()
+                .requestMatchers("/api/products/{id}/similar").permitAll()
                 .requestMatchers("/api/categories").permitAll()
                 .requestMatchers("/api/filters").permitAll()
                 .requestMatchers("/api/admin/**").hasAnyRole("ADMIN", "OWNER")
@@ -1,10 +1,18 @@
 package com.catalog.config;
 
+import com.catalog.service.AuditLogService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -12,18 +20,36 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${catalog.image.upload.path:uploads/products/}")
     private String uploadPath;
     
+    @Autowired
+    private AuditLogService auditLogService;
+    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("*")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*");
     }
     
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AuditInterceptor(auditLogService))
+                .addPathPatterns("/api/admin/**", "/api/owner/**");
+    }
+    
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve uploaded images
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadPath);
+        
+        // Vite fingerprints everything under /assets, so a file's content never changes under its
+        // name; serve the precompressed .br/.gz variant the client accepts
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
     }
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.catalog.controller;
 import com.catalog.dto.CategoryDto;
 import com.catalog.dto.FilterDto;
 import com.catalog.dto.FilterValueDto;
+import com.catalog.dto.ProductBulkUpdateRequest;
 import com.catalog.dto.ProductDto;
+import com.catalog.dto.ProductFields;
 import com.catalog.entity.Category;
 import com.catalog.entity.Filter;
 import com.catalog.entity.FilterValue;
@@ -11,11 +13,18 @@ import com.catalog.entity.Product;
 import com.catalog.mapper.CategoryMapper;
 import com.catalog.mapper.FilterMapper;
 import com.catalog.mapper.ProductMapper;
+import com.catalog.service.CacheStatisticsService;
+import com.catalog.service.CatalogEventService;
+import com.catalog.service.CatalogSnapshotService;
 import com.catalog.service.CategoryFilterService;
 import com.catalog.service.CategoryService;
 import com.catalog.service.FilterService;
+import com.catalog.service.MappedCatalogService;
 import com.catalog.service.ProductFilterService;
 import com.catalog.service.ProductService;
+import com.catalog.service.ProductStatsService;
+import com.catalog.service.QueryAnalyticsService;
+import com.catalog.service.SimilarProductsService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +35,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -53,6 +63,27 @@ public class AdminController {
     @Autowired
     private ProductFilterService productFilterService;
     
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+    
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private MappedCatalogService mappedCatalogService;
+    
+    @Autowired
+    private CatalogEventService catalogEventService;
+    
+    @Autowired
+    private SimilarProductsService similarProductsService;
+    
+    @Autowired
+    private ProductStatsService productStatsService;
+    
+    @Autowired
+    private QueryAnalyticsService queryAnalyticsService;
+    
     @Autowired
     private ProductMapper productMapper;
     
@@ -64,17 +95,56 @@ public class AdminController {
     
     // Product Management - Return DTOs with admin fields
     @GetMapping("/products")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String fields,
+                                            @RequestParam(required = false) String view) {
         try {
-            List<Product> products = productService.getAllProducts();
-            List<ProductDto> productDtos = productMapper.toDtoListForAdmin(products);
+            ProductFields productFields = ProductFields.of(fields, view);
+            List<Product> products = productFields.includes(ProductFields.DESCRIPTION)
+                    ? productService.getAllProducts()
+                    : productService.getProductsWithoutDescription(null, null);
+            List<ProductDto> productDtos = productMapper.toDtoList(products, true, productFields);
             return ResponseEntity.ok(productDtos);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error in getAllProducts", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    // One price and/or stock change for many products, applied with set-based statements
+    @PostMapping("/products/bulk-update")
+    public ResponseEntity<?> bulkUpdateProducts(@RequestBody ProductBulkUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(productService.bulkUpdate(request));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("Error in bulkUpdateProducts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Partial updates of many products (grid edits): only the named fields change, all in one transaction
+    @PatchMapping("/products")
+    public ResponseEntity<?> patchProducts(@RequestBody List<Map<String, Object>> patches) {
+        try {
+            List<Product> products = productService.patchProducts(patches);
+            return ResponseEntity.ok(productMapper.toDtoListForAdmin(products));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("Error in patchProducts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @GetMapping("/products/{id}")
     public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
         try {
@@ -92,12 +162,21 @@ public class AdminController {
         try {
             logger.info("Creating product with data: {}", productData);
             
+            // Products reference categories by id; the API keeps taking the category name
+            String categoryName = (String) productData.get("category");
+            Optional<Category> category = categoryService.getCategoryByName(categoryName);
+            if (!category.isPresent()) {
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "Category not found: " + categoryName);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
             // Extract product data
             Product product = new Product();
             product.setName((String) productData.get("name"));
             product.setDescription((String) productData.get("description"));
             product.setPrice(new java.math.BigDecimal(productData.get("price").toString()));
-            product.setCategory((String) productData.get("category"));
+            product.setCategory(category.get());
             product.setInStock((Boolean) productData.get("inStock"));
             
             // Handle cost price if provided
@@ -142,11 +221,19 @@ public class AdminController {
                 return ResponseEntity.notFound().build();
             }
             
+            String categoryName = (String) productData.get("category");
+            Optional<Category> category = categoryService.getCategoryByName(categoryName);
+            if (!category.isPresent()) {
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "Category not found: " + categoryName);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
             Product product = existingProductOpt.get();
             product.setName((String) productData.get("name"));
             product.setDescription((String) productData.get("description"));
             product.setPrice(new java.math.BigDecimal(productData.get("price").toString()));
-            product.setCategory((String) productData.get("category"));
+            product.setCategory(category.get());
             product.setInStock((Boolean) productData.get("inStock"));
             
             // Handle cost price if provided
@@ -245,15 +332,13 @@ public class AdminController {
         Map<String, String> response = new HashMap<>();
         
         // Check if category is being used by any products
-        List<Product> productsUsingCategory = productService.getAllProducts().stream()
-                .filter(product -> {
-                    Optional<Category> category = categoryService.getCategoryById(id);
-                    return category.isPresent() && product.getCategory().equals(category.get().getName());
-                })
-                .toList();
+        Optional<Category> category = categoryService.getCategoryById(id);
+        long productsUsingCategory = category
+                .map(c -> productService.countProductsByCategory(c.getId()))
+                .orElse(0L);
         
-        if (!productsUsingCategory.isEmpty()) {
-            response.put("message", "Cannot delete category. It is being used by " + productsUsingCategory.size() + " product(s)");
+        if (productsUsingCategory > 0) {
+            response.put("message", "Cannot delete category. It is being used by " + productsUsingCategory + " product(s)");
             return ResponseEntity.badRequest().body(response);
         }
         
@@ -289,7 +374,7 @@ public class AdminController {
     // Filter Management - Return DTOs instead of entities
     @GetMapping("/filters")
     public ResponseEntity<List<FilterDto>> getAllFilters() {
-        List<Filter> filters = filterService.getAllFilters();
+        List<Filter> filters = filterService.getAllFiltersWithValues();
         List<FilterDto> filterDtos = filterMapper.toDtoList(filters);
         return ResponseEntity.ok(filterDtos);
     }
@@ -412,4 +497,72 @@ public class AdminController {
         return deleted ? ResponseEntity.noContent().build() 
                       : ResponseEntity.notFound().build();
     }
-}
\ No newline at end of file
+    
+    // Second-level cache statistics
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+    
+    @DeleteMapping("/cache/statistics")
+    public ResponseEntity<?> clearCacheStatistics() {
+        cacheStatisticsService.clearStatistics();
+        return ResponseEntity.noContent().build();
+    }
+    
+    // State of the in-memory and mapped listing snapshots
+    @GetMapping("/snapshots/statistics")
+    public ResponseEntity<Map<String, Object>> getSnapshotStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("snapshot", catalogSnapshotService.getStatistics());
+        statistics.put("mappedSnapshot", mappedCatalogService.getStatistics());
+        return ResponseEntity.ok(statistics);
+    }
+    
+    // Open change streams and events sent
+    @GetMapping("/events/statistics")
+    public ResponseEntity<Map<String, Object>> getEventStatistics() {
+        return ResponseEntity.ok(catalogEventService.getStatistics());
+    }
+    
+    // Size and update counts of the similar products index
+    @GetMapping("/similar-products/statistics")
+    public ResponseEntity<Map<String, Object>> getSimilarProductsStatistics() {
+        return ResponseEntity.ok(similarProductsService.getStatistics());
+    }
+    
+    // View and impression counts: totals, flush state and the most viewed products
+    @GetMapping("/products/stats")
+    public ResponseEntity<?> getProductStats(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 1000) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "limit must be between 1 and 1000");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            Map<String, Object> result = new LinkedHashMap<>(productStatsService.getStatistics());
+            result.put("mostViewed", productStatsService.getMostViewed(limit));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            logger.error("Error in getProductStats", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Most frequent search terms, filter combinations and query shapes of product listings
+    @GetMapping("/analytics/top-queries")
+    public ResponseEntity<?> getTopQueries(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 1000) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "limit must be between 1 and 1000");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(queryAnalyticsService.getTopQueries(limit));
+    }
+    
+    @DeleteMapping("/analytics/top-queries")
+    public ResponseEntity<?> clearTopQueries() {
+        queryAnalyticsService.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
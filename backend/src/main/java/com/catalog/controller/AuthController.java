@@ -5,19 +5,25 @@ import com.catalog.dto.ChangePasswordRequest;
 import com.catalog.dto.ForgotPasswordRequest;
 import com.catalog.dto.JwtResponse;
 import com.catalog.dto.LoginRequest;
+import com.catalog.dto.RefreshTokenRequest;
 import com.catalog.dto.ResetPasswordRequest;
 import com.catalog.entity.User;
 import com.catalog.repository.UserRepository;
 import com.catalog.security.JwtUtils;
+import com.catalog.security.LoginThrottle;
+import com.catalog.security.PasswordVerifier;
 import com.catalog.security.UserPrincipal;
 import com.catalog.service.PasswordResetService;
+import com.catalog.service.RefreshTokenService;
 import com.catalog.service.UserActivationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -35,9 +42,6 @@ public class AuthController {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     
-    @Autowired
-    AuthenticationManager authenticationManager;
-    
     @Autowired
     UserRepository userRepository;
     
@@ -47,6 +51,15 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
     
+    @Autowired
+    PasswordVerifier passwordVerifier;
+    
+    @Autowired
+    LoginThrottle loginThrottle;
+    
+    @Autowired
+    RefreshTokenService refreshTokenService;
+    
     @Autowired
     PasswordResetService passwordResetService;
     
@@ -54,12 +67,25 @@ public class AuthController {
     UserActivationService userActivationService;
     
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
         Map<String, Object> response = new HashMap<>();
         
         try {
             logger.info("Authentication attempt for user: {}", loginRequest.getEmail());
             
+            // Throttled attempts cost neither a query nor a password check. Behind a trusted proxy
+            // the remote address is the client's, from X-Forwarded-For
+            String clientIp = request.getRemoteAddr();
+            long retryAfter = loginThrottle.acquire(loginRequest.getEmail(), clientIp);
+            if (retryAfter > 0) {
+                logger.warn("Sign-in throttled for user: {} from {}", loginRequest.getEmail(), clientIp);
+                response.put("message", "Too many sign-in attempts. Please try again in " + retryAfter + " seconds.");
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .body(response);
+            }
+            
             // Check if user exists and needs activation
             Optional<User> userOpt = userRepository.findByEmail(loginRequest.getEmail());
             if (userOpt.isPresent()) {
@@ -82,24 +108,35 @@ public class AuthController {
                 }
             }
             
-            // Authenticate with Spring Security - it will handle password hashing internally
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+            // Check the password against the user loaded above rather than having the
+            // authentication manager load it again; unknown users get a check too, so they take as long
+            if (!passwordVerifier.matches(loginRequest.getPassword(), userOpt.map(User::getPassword).orElse(null))) {
+                loginThrottle.failed(loginRequest.getEmail(), clientIp);
+                logger.warn("Authentication failed for user: {}", loginRequest.getEmail());
+                response.put("message", "Invalid email or password");
+                return ResponseEntity.badRequest().body(response);
+            }
+            loginThrottle.succeeded(loginRequest.getEmail(), clientIp);
+            
+            UserPrincipal userDetails = UserPrincipal.create(userOpt.get());
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
             
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
-            
-            UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
+            String refreshToken = refreshTokenService.issue(userOpt.get());
             
             logger.info("Authentication successful for user: {}", loginRequest.getEmail());
             
-            return ResponseEntity.ok(new JwtResponse(jwt,
-                    userDetails.getId(),
-                    userDetails.getEmail(),
-                    userDetails.getFirstName(),
-                    userDetails.getLastName(),
-                    userDetails.getAuthorities().iterator().next().getAuthority()));
+            return ResponseEntity.ok(tokenResponse(userDetails, jwt, refreshToken));
                     
+        } catch (RejectedExecutionException e) {
+            // Password checks are saturated; the client should back off rather than retry at once
+            logger.warn("Sign-in rejected under load for user: {}", loginRequest.getEmail());
+            response.put("message", "Too many sign-in requests right now. Please try again shortly.");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
         } catch (Exception e) {
             logger.error("Authentication failed for user: {}", loginRequest.getEmail(), e);
             response.put("message", "Invalid email or password");
@@ -143,6 +180,58 @@ public class AuthController {
         }
     }
     
+    // Renews the access token without the password: one indexed lookup and a signature instead of a BCrypt check
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        Map<String, String> response = new HashMap<>();
+        
+        try {
+            Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+            if (!rotation.isPresent()) {
+                response.put("message", "Invalid or expired refresh token");
+                return ResponseEntity.status(401).body(response);
+            }
+            
+            UserPrincipal userDetails = UserPrincipal.create(rotation.get().getUser());
+            String jwt = jwtUtils.generateJwtToken(userDetails);
+            return ResponseEntity.ok(tokenResponse(userDetails, jwt, rotation.get().getRefreshToken()));
+            
+        } catch (Exception e) {
+            logger.error("Error refreshing token", e);
+            response.put("message", "An error occurred while refreshing the session");
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    // Ends the session on the server: the refresh token and its family can no longer be used
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest logoutRequest) {
+        Map<String, String> response = new HashMap<>();
+        
+        try {
+            refreshTokenService.revoke(logoutRequest.getRefreshToken());
+            response.put("message", "Logged out");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error logging out", e);
+            response.put("message", "An error occurred while logging out");
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    private JwtResponse tokenResponse(UserPrincipal userDetails, String jwt, String refreshToken) {
+        JwtResponse jwtResponse = new JwtResponse(jwt,
+                userDetails.getId(),
+                userDetails.getEmail(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                userDetails.getAuthorities().iterator().next().getAuthority());
+        jwtResponse.setRefreshToken(refreshToken);
+        jwtResponse.setExpiresIn(jwtUtils.getJwtExpirationMs() / 1000L);
+        return jwtResponse;
+    }
+    
+    // Answers from the access token alone: AuthTokenFilter builds the user from its claims
     @PostMapping("/check-auth")
     public ResponseEntity<?> checkAuth() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -204,9 +293,14 @@ public class AuthController {
             user.setIsTemporaryPassword(false);
             userRepository.save(user);
             
+            // Sign out every other session; this one continues with a new refresh token
+            refreshTokenService.revokeAll(user.getId());
+            String refreshToken = refreshTokenService.issue(user);
+            
             logger.info("Password changed successfully for user: {}", user.getEmail());
             
             response.put("message", "Password changed successfully");
+            response.put("refreshToken", refreshToken);
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
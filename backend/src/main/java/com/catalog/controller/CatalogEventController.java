@@ -0,0 +1,35 @@
+package com.catalog.controller;
+
+import com.catalog.service.CatalogEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class CatalogEventController {
+    
+    @Autowired
+    private CatalogEventService catalogEventService;
+    
+    // Server-sent events for catalog changes; see CatalogEventService for the event format
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        SseEmitter emitter = catalogEventService.subscribe();
+        if (emitter == null) {
+            // EventSource retries on its own; there is no body it could show
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        // Keeps nginx and similar proxies from buffering the stream
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
@@ -3,8 +3,8 @@ package com.catalog.controller;
 import com.catalog.dto.FilterDto;
 import com.catalog.entity.Filter;
 import com.catalog.mapper.FilterMapper;
-import com.catalog.service.CategoryFilterService;
 import com.catalog.service.FilterService;
+import com.catalog.service.QueryResultCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,36 +20,28 @@ public class FilterController {
     private FilterService filterService;
     
     @Autowired
-    private CategoryFilterService categoryFilterService;
+    private FilterMapper filterMapper;
     
     @Autowired
-    private FilterMapper filterMapper;
+    private QueryResultCache queryResultCache;
     
     @GetMapping
     public ResponseEntity<List<FilterDto>> getActiveFiltersWithValues(@RequestParam(required = false) String category) {
+        List<FilterDto> filterDtos = queryResultCache.get("filters|" + category, () -> findActiveFilters(category));
+        return ResponseEntity.ok(filterDtos);
+    }
+    
+    private List<FilterDto> findActiveFilters(String category) {
         List<Filter> filters;
         
         if (category != null && !category.isEmpty() && !category.equals("all")) {
-            // Get filters specific to the category
-            filters = categoryFilterService.getActiveFiltersByCategoryName(category);
-            
-            // Load filter values for each filter and filter out those without active values
-            filters = filters.stream()
-                    .filter(filter -> {
-                        List<com.catalog.entity.FilterValue> activeValues = filterService.getActiveFilterValues(filter.getId());
-                        if (!activeValues.isEmpty()) {
-                            filter.setFilterValues(activeValues);
-                            return true;
-                        }
-                        return false;
-                    })
-                    .toList();
+            // Get filters specific to the category, with their active values
+            filters = filterService.getActiveFiltersWithValuesByCategoryName(category);
         } else {
             // Get all active filters with values
             filters = filterService.getActiveFiltersWithValues();
         }
         
-        List<FilterDto> filterDtos = filterMapper.toDtoList(filters);
-        return ResponseEntity.ok(filterDtos);
+        return filterMapper.toDtoList(filters);
     }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.catalog.controller;
 
+import com.catalog.dto.AuditEventDto;
 import com.catalog.dto.UserDto;
 import com.catalog.entity.User;
+import com.catalog.mapper.AuditEventMapper;
 import com.catalog.mapper.UserMapper;
+import com.catalog.security.LoginThrottle;
+import com.catalog.security.PasswordVerifier;
+import com.catalog.service.AuditLogService;
 import com.catalog.service.UserService;
 import com.catalog.service.UserFileService;
 import jakarta.validation.Valid;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -37,6 +43,18 @@ public class OwnerController {
     @Autowired
     private UserMapper userMapper;
     
+    @Autowired
+    private AuditLogService auditLogService;
+    
+    @Autowired
+    private AuditEventMapper auditEventMapper;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+    
     // User Management
     @GetMapping("/users")
     public ResponseEntity<List<UserDto>> getAllUsers() {
@@ -320,4 +338,36 @@ public class OwnerController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+    
+    // Audit trail of admin and owner writes
+    @GetMapping("/audit")
+    public ResponseEntity<?> getAuditEvents(@RequestParam(defaultValue = "50") int limit,
+                                            @RequestParam(required = false) Long userId) {
+        if (limit < 1 || limit > 1000) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "limit must be between 1 and 1000");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            List<AuditEventDto> events = auditEventMapper.toDtoList(auditLogService.getRecentEvents(userId, limit));
+            return ResponseEntity.ok(events);
+        } catch (Exception e) {
+            logger.error("Error in getAuditEvents", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/audit/statistics")
+    public ResponseEntity<Map<String, Object>> getAuditStatistics() {
+        return ResponseEntity.ok(auditLogService.getStatistics());
+    }
+    
+    // Sign-in throttling and password check load
+    @GetMapping("/auth/statistics")
+    public ResponseEntity<Map<String, Object>> getAuthStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("throttle", loginThrottle.getStatistics());
+        statistics.put("passwordChecks", passwordVerifier.getStatistics());
+        return ResponseEntity.ok(statistics);
+    }
+}
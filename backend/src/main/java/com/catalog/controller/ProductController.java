@@ -1,31 +1,66 @@
 package com.catalog.controller;
 
+import com.catalog.dto.ProductBatchRequest;
+import com.catalog.dto.ProductBatchResponse;
+import com.catalog.dto.ProductChangeDto;
+import com.catalog.dto.ProductChangesResponse;
 import com.catalog.dto.ProductDto;
-import com.catalog.dto.ProductImageDto;
+import com.catalog.dto.ProductFields;
+import com.catalog.entity.CatalogChange;
 import com.catalog.entity.Product;
-import com.catalog.entity.ProductImage;
 import com.catalog.mapper.ProductMapper;
-import com.catalog.mapper.ProductImageMapper;
+import com.catalog.service.CatalogChangeLogService;
+import com.catalog.service.CatalogSnapshotService;
+import com.catalog.service.CatalogVersionService;
+import com.catalog.service.MappedCatalogService;
 import com.catalog.service.CategoryService;
+import com.catalog.service.ProductDetailService;
 import com.catalog.service.ProductService;
-import com.catalog.service.ProductImageService;
+import com.catalog.service.ProductStatsService;
 import com.catalog.service.ProductFilterService;
+import com.catalog.service.QueryAnalyticsService;
+import com.catalog.service.QueryResultCache;
+import com.catalog.service.SimilarProductsService;
+import com.catalog.util.SortedLongSet;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    // Request parameters of the listing that are not filter names
+    private static final Set<String> LISTING_PARAMETERS = Set.of("category", "search", "sort", "fields", "view");
+    
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_SIMILAR = 50;
+    
+    private static final int MAX_CHANGES_LIMIT = 1000;
+    
     @Autowired
     private ProductService productService;
     
@@ -36,32 +71,156 @@ public class ProductController {
     private ProductMapper productMapper;
     
     @Autowired
-    private ProductImageService productImageService;
+    private ProductDetailService productDetailService;
     
     @Autowired
-    private ProductImageMapper productImageMapper;
+    private ProductFilterService productFilterService;
     
     @Autowired
-    private ProductFilterService productFilterService;
+    private QueryResultCache queryResultCache;
+    
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private CatalogChangeLogService catalogChangeLogService;
+    
+    @Autowired
+    private MappedCatalogService mappedCatalogService;
+    
+    @Autowired
+    private ProductStatsService productStatsService;
+    
+    @Autowired
+    private QueryAnalyticsService queryAnalyticsService;
+    
+    @Autowired
+    private SimilarProductsService similarProductsService;
     
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String sort,
-            @RequestParam(required = false) Map<String, String> filters) {
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Map<String, String> filters,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        List<Product> products;
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.of(fields, view);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        queryAnalyticsService.record(category, search, sort, filterMap(filters));
+        
+        // Admins see cost fields, so only anonymous and customer listings are shared
+        if (productMapper.isCurrentUserAdmin()) {
+            return ResponseEntity.ok(findProducts(category, search, sort, filters, productFields));
+        }
         
-        // Remove known parameters from filters map
-        Map<String, String> actualFilters = filters.entrySet().stream()
-                .filter(entry -> !entry.getKey().equals("category") && 
-                               !entry.getKey().equals("search") && 
-                               !entry.getKey().equals("sort"))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        // Plain listings (everything, or one category) come straight from the in-memory snapshot
+        boolean unfiltered = (search == null || search.isEmpty()) && (sort == null || sort.isEmpty())
+                && productFields.isFull() && filters.keySet().stream().allMatch(LISTING_PARAMETERS::contains);
+        if (unfiltered) {
+            CatalogSnapshotService.Listing listing = catalogSnapshotService.getListing(category);
+            if (listing != null) {
+                productStatsService.recordImpressions(listing.getProductIds());
+                return snapshotResponse(listing, acceptEncoding, ifNoneMatch);
+            }
+        }
+        
+        List<ProductDto> productDtos = queryResultCache.get(
+                productsCacheKey(category, search, sort, filters, productFields),
+                () -> {
+                    // Searches match descriptions in SQL; everything else the mapped snapshot can answer
+                    if (search == null || search.isEmpty()) {
+                        List<ProductDto> mapped = mappedCatalogService.findProducts(category, filterMap(filters), sort,
+                                productFields);
+                        if (mapped != null) {
+                            return mapped;
+                        }
+                    }
+                    return findProducts(category, search, sort, filters, productFields);
+                });
+        productStatsService.recordImpressions(productDtos);
+        return ResponseEntity.ok(productDtos);
+    }
+    
+    private ResponseEntity<?> snapshotResponse(CatalogSnapshotService.Listing listing, String acceptEncoding,
+                                               String ifNoneMatch) {
+        if (listing.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(listing.getEtag()).build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(listing.getEtag())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(listing.getGzippedJson());
+        }
+        
+        // Rare: clients that cannot take gzip get it inflated on the fly
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(listing.getGzippedJson()))) {
+            return response.body(json.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Identical listings share one cache entry however their parameters are written: filter
+     * parameters and their comma-separated values are sorted (filters are matched as sets) and the
+     * search term is lower-cased (matching is case-insensitive).
+     */
+    private String productsCacheKey(String category, String search, String sort, Map<String, String> filters,
+                                    ProductFields productFields) {
+        StringBuilder key = new StringBuilder("products|")
+                .append(category).append('|')
+                .append(search == null ? null : search.toLowerCase(Locale.ROOT)).append('|')
+                .append(sort).append('|')
+                .append(productFields);
+        
+        new TreeMap<>(filters).forEach((name, value) -> {
+            if (!LISTING_PARAMETERS.contains(name)) {
+                String[] values = value.split(",");
+                Arrays.sort(values);
+                key.append('|').append(name).append('=').append(String.join(",", values));
+            }
+        });
+        return key.toString();
+    }
+    
+    /**
+     * The filter parameters of a listing request (all but {@link #LISTING_PARAMETERS}), with their
+     * comma-separated values split into lists.
+     */
+    private static Map<String, List<String>> filterMap(Map<String, String> filters) {
+        return filters.entrySet().stream()
+                .filter(entry -> !LISTING_PARAMETERS.contains(entry.getKey()))
+                .collect(Collectors.toMap(
+                    Map.Entry::getKey,
+                    entry -> List.of(entry.getValue().split(","))
+                ));
+    }
+    
+    private List<ProductDto> findProducts(String category, String search, String sort, Map<String, String> filters,
+                                          ProductFields productFields) {
+        List<Product> products;
+        Map<String, List<String>> filterMap = filterMap(filters);
         
         // Apply search and category filters first
-        if (category != null && !category.isEmpty() && search != null && !search.isEmpty()) {
+        if (!productFields.includes(ProductFields.DESCRIPTION)) {
+            // Descriptions are the bulk of a product row; leave them in the database when not shown
+            products = productService.getProductsWithoutDescription(
+                    category != null && !category.isEmpty() ? category : null,
+                    search != null && !search.isEmpty() ? search : null);
+        } else if (category != null && !category.isEmpty() && search != null && !search.isEmpty()) {
             products = productService.searchProductsByCategory(category, search);
         } else if (search != null && !search.isEmpty()) {
             products = productService.searchProducts(search);
@@ -72,17 +231,10 @@ public class ProductController {
         }
         
         // Apply custom filters if any are provided
-        if (!actualFilters.isEmpty()) {
-            // Convert single values to lists for the filter service
-            Map<String, List<String>> filterMap = actualFilters.entrySet().stream()
-                    .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> List.of(entry.getValue().split(","))
-                    ));
-            
-            List<Long> filteredProductIds = productFilterService.findProductIdsByFilters(filterMap);
+        if (!filterMap.isEmpty()) {
+            SortedLongSet filteredProductIds = productFilterService.findProductIdsByFilters(filterMap);
             
-            // Filter products to only include those that match the filters
+            // Filter products to only include those that match the filters (binary search per product)
             products = products.stream()
                     .filter(product -> filteredProductIds.contains(product.getId()))
                     .collect(Collectors.toList());
@@ -106,42 +258,206 @@ public class ProductController {
                             .sorted((p1, p2) -> p2.getCreatedAt().compareTo(p1.getCreatedAt()))
                             .collect(Collectors.toList());
                     break;
+                case "popular":
+                    products = products.stream()
+                            .sorted((p1, p2) -> Long.compare(productStatsService.getViews(p2.getId()),
+                                    productStatsService.getViews(p1.getId())))
+                            .collect(Collectors.toList());
+                    break;
             }
         }
         
-        List<ProductDto> productDtos = productMapper.toDtoList(products);
-        return ResponseEntity.ok(productDtos);
+        return productMapper.toDtoList(products, false, productFields);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        if (product.isPresent()) {
-            ProductDto productDto = productMapper.toDto(product.get());
-            
-            // Add product images to the DTO
-            List<ProductImage> images = productImageService.getProductImages(id);
-            if (!images.isEmpty()) {
-                List<ProductImageDto> imageDtos = productImageMapper.toDtoList(images);
-                // Note: You'll need to add an images field to ProductDto if you want to include them
-                // For now, we'll just return the product without images in the DTO
+        // The DTO already carries the ordered images and filter values; admins bypass the shared cache
+        // and are not counted as views
+        if (productMapper.isCurrentUserAdmin()) {
+            return productService.getProductById(id).map(productMapper::toDto).map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        Optional<ProductDto> productDto = productDetailService.getProductDetail(id);
+        productDto.ifPresent(dto -> productStatsService.recordView(dto.getId()));
+        return productDto.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Products of the same category sharing the most filter values with this one, most similar
+     * first; empty when it has no filter values.
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarProducts(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "10") int limit,
+                                                @RequestParam(required = false) String fields,
+                                                @RequestParam(required = false) String view) {
+        ProductFields productFields;
+        try {
+            productFields = ProductFields.of(fields, view);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (limit < 1 || limit > MAX_SIMILAR) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "limit must be between 1 and " + MAX_SIMILAR);
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        List<Map.Entry<Long, Double>> similar = similarProductsService.findSimilar(id, limit);
+        if (similar.isEmpty()) {
+            return productDetailService.getProductDetail(id).isPresent()
+                    ? ResponseEntity.ok(List.of())
+                    : ResponseEntity.notFound().build();
+        }
+        
+        List<Long> similarIds = similar.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        Map<Long, ProductDto> foundById = new HashMap<>();
+        for (ProductDto dto : productMapper.toDtoList(productService.getProductsByIds(similarIds),
+                productMapper.isCurrentUserAdmin(), productFields)) {
+            foundById.put(dto.getId(), dto);
+        }
+        // Most similar first; products deleted since the index was updated are left out
+        List<ProductDto> products = similarIds.stream()
+                .map(foundById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(products);
+    }
+    
+    @GetMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestParam String ids) {
+        List<Long> productIds = new ArrayList<>();
+        try {
+            for (String id : ids.split(",")) {
+                if (!id.isBlank()) {
+                    productIds.add(Long.parseLong(id.trim()));
+                }
             }
-            
-            return ResponseEntity.ok(productDto);
+        } catch (NumberFormatException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Product ids must be numbers: " + ids);
+            return ResponseEntity.badRequest().body(response);
         }
-        return ResponseEntity.notFound().build();
+        return batchResponse(productIds);
+    }
+    
+    // For lists that would not fit in a URL
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@Valid @RequestBody ProductBatchRequest request) {
+        return batchResponse(request.getIds());
+    }
+    
+    private ResponseEntity<?> batchResponse(List<Long> ids) {
+        // Duplicates are answered once, at their first position
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        requestedIds.remove(null);
+        if (requestedIds.isEmpty() || requestedIds.size() > MAX_BATCH_SIZE) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Between 1 and " + MAX_BATCH_SIZE + " product ids are required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        // One query for the products, one for their filter values and one for their images
+        List<ProductDto> found = productMapper.toDtoList(productService.getProductsByIds(requestedIds));
+        Map<Long, ProductDto> foundById = new HashMap<>();
+        for (ProductDto dto : found) {
+            foundById.put(dto.getId(), dto);
+        }
+        
+        List<ProductDto> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requestedIds) {
+            ProductDto dto = foundById.get(id);
+            if (dto != null) {
+                products.add(dto);
+            } else {
+                missing.add(id);
+            }
+        }
+        return ResponseEntity.ok(new ProductBatchResponse(products, missing));
+    }
+    
+    /**
+     * Products created, updated or deleted after the {@code since} cursor (0 for everything still in
+     * the log), in the order the changes happened. Several changes to one product within a page are
+     * folded into one entry carrying its current state, so syncing costs one page read plus the
+     * changed products rather than a full listing.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getProductChanges(@RequestParam(defaultValue = "0") long since,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT || since < 0) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Limit must be between 1 and " + MAX_CHANGES_LIMIT + " and since must not be negative");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (catalogChangeLogService.isExpired(since)) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Changes after cursor " + since + " are no longer available; reload the catalog");
+            return ResponseEntity.status(HttpStatus.GONE).body(response);
+        }
+        
+        List<CatalogChange> entries = catalogChangeLogService.getChangesSince(since, limit);
+        
+        // Latest entry per product, ordered by that entry's position in the log
+        Map<Long, CatalogChange> firstByProduct = new HashMap<>();
+        Map<Long, CatalogChange> lastByProduct = new LinkedHashMap<>();
+        for (CatalogChange entry : entries) {
+            firstByProduct.putIfAbsent(entry.getProductId(), entry);
+            lastByProduct.remove(entry.getProductId());
+            lastByProduct.put(entry.getProductId(), entry);
+        }
+        
+        // One query for the products, one for their filter values and one for their images
+        Map<Long, ProductDto> current = new HashMap<>();
+        for (ProductDto dto : productMapper.toDtoList(productService.getProductsByIds(lastByProduct.keySet()))) {
+            current.put(dto.getId(), dto);
+        }
+        
+        List<ProductChangeDto> changes = new ArrayList<>(lastByProduct.size());
+        for (CatalogChange last : lastByProduct.values()) {
+            ProductDto product = current.get(last.getProductId());
+            CatalogChange first = firstByProduct.get(last.getProductId());
+            CatalogChange.Operation operation;
+            if (product == null) {
+                operation = CatalogChange.Operation.DELETED;
+            } else if (first.getOperation() == CatalogChange.Operation.CREATED
+                    && CatalogVersionService.PRODUCT.equals(first.getEntityType())) {
+                // Created within this page, so the client has not seen it yet
+                operation = CatalogChange.Operation.CREATED;
+            } else {
+                operation = CatalogChange.Operation.UPDATED;
+            }
+            changes.add(new ProductChangeDto(last.getId(), last.getProductId(), operation, last.getChangedAt(), product));
+        }
+        
+        long nextCursor = entries.isEmpty() ? since : entries.get(entries.size() - 1).getId();
+        return ResponseEntity.ok(new ProductChangesResponse(changes, nextCursor, entries.size() == limit));
     }
     
     @PostMapping
-    public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody Product product) {
+    public ResponseEntity<?> createProduct(@Valid @RequestBody ProductDto productData) {
+        // The category arrives by name and is resolved to its entity; unknown names are rejected
+        Product product = productMapper.toEntity(productData);
+        if (product.getCategory() == null) {
+            return categoryNotFound(productData.getCategory());
+        }
         Product savedProduct = productService.saveProduct(product);
         ProductDto productDto = productMapper.toDto(savedProduct);
         return ResponseEntity.status(HttpStatus.CREATED).body(productDto);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, 
-                                                   @Valid @RequestBody Product productDetails) {
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, 
+                                           @Valid @RequestBody ProductDto productData) {
+        Product productDetails = productMapper.toEntity(productData);
+        if (productDetails.getCategory() == null) {
+            return categoryNotFound(productData.getCategory());
+        }
         Product updatedProduct = productService.updateProduct(id, productDetails);
         if (updatedProduct != null) {
             ProductDto productDto = productMapper.toDto(updatedProduct);
@@ -150,6 +466,12 @@ public class ProductController {
         return ResponseEntity.notFound().build();
     }
     
+    private ResponseEntity<Map<String, String>> categoryNotFound(String categoryName) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Category not found: " + categoryName);
+        return ResponseEntity.badRequest().body(response);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         boolean deleted = productService.deleteProduct(id);
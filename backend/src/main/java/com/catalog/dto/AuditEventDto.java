@@ -0,0 +1,94 @@
+package com.catalog.dto;
+
+import java.time.LocalDateTime;
+
+public class AuditEventDto {
+    
+    private Long id;
+    private LocalDateTime occurredAt;
+    private Long userId;
+    private String userEmail;
+    private String action;
+    private String target;
+    private Integer status;
+    private String clientIp;
+    
+    public AuditEventDto() {}
+    
+    public AuditEventDto(Long id, LocalDateTime occurredAt, Long userId, String userEmail, String action,
+                         String target, Integer status, String clientIp) {
+        this.id = id;
+        this.occurredAt = occurredAt;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.action = action;
+        this.target = target;
+        this.status = status;
+        this.clientIp = clientIp;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getUserEmail() {
+        return userEmail;
+    }
+    
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    public String getTarget() {
+        return target;
+    }
+    
+    public void setTarget(String target) {
+        this.target = target;
+    }
+    
+    public Integer getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+    
+    public String getClientIp() {
+        return clientIp;
+    }
+    
+    public void setClientIp(String clientIp) {
+        this.clientIp = clientIp;
+    }
+}
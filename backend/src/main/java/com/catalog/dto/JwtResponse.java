@@ -9,6 +9,10 @@ public class JwtResponse {
     private String firstName;
     private String lastName;
     private String role;
+    // Set when a refresh token is issued (sign-in and refresh)
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     
     public JwtResponse(String accessToken, Long id, String email, 
                       String firstName, String lastName, String role) {
@@ -75,4 +79,20 @@ public class JwtResponse {
     public void setRole(String role) {
         this.role = role;
     }
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
\ No newline at end of file
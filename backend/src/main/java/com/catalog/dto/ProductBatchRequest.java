@@ -0,0 +1,25 @@
+package com.catalog.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class ProductBatchRequest {
+    
+    @NotEmpty(message = "At least one product id is required")
+    private List<Long> ids;
+    
+    public ProductBatchRequest() {}
+    
+    public ProductBatchRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,35 @@
+package com.catalog.dto;
+
+import java.util.List;
+
+public class ProductBatchResponse {
+    
+    // Found products, in the order their ids were requested
+    private List<ProductDto> products;
+    
+    // Requested ids that do not exist
+    private List<Long> missing;
+    
+    public ProductBatchResponse() {}
+    
+    public ProductBatchResponse(List<ProductDto> products, List<Long> missing) {
+        this.products = products;
+        this.missing = missing;
+    }
+    
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+    
+    public void setProducts(List<ProductDto> products) {
+        this.products = products;
+    }
+    
+    public List<Long> getMissing() {
+        return missing;
+    }
+    
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
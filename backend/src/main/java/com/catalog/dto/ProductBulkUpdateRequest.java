@@ -0,0 +1,84 @@
+package com.catalog.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One price and/or stock change applied to every product matching all given selection criteria
+ * ({@code ids}, {@code category}, {@code filters}; at least one is required).
+ */
+public class ProductBulkUpdateRequest {
+    
+    public enum PriceMode {
+        // price * (1 + priceValue / 100)
+        PERCENT,
+        // price + priceValue
+        ABSOLUTE,
+        // costPrice * (1 + priceValue / 100); products without a cost price keep their price
+        COST_PLUS
+    }
+    
+    private List<Long> ids;
+    
+    private String category;
+    
+    // Filter name to accepted values, matched like the listing filters
+    private Map<String, List<String>> filters;
+    
+    private PriceMode priceMode;
+    
+    private BigDecimal priceValue;
+    
+    private Boolean inStock;
+    
+    public ProductBulkUpdateRequest() {}
+    
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public Map<String, List<String>> getFilters() {
+        return filters;
+    }
+    
+    public void setFilters(Map<String, List<String>> filters) {
+        this.filters = filters;
+    }
+    
+    public PriceMode getPriceMode() {
+        return priceMode;
+    }
+    
+    public void setPriceMode(PriceMode priceMode) {
+        this.priceMode = priceMode;
+    }
+    
+    public BigDecimal getPriceValue() {
+        return priceValue;
+    }
+    
+    public void setPriceValue(BigDecimal priceValue) {
+        this.priceValue = priceValue;
+    }
+    
+    public Boolean getInStock() {
+        return inStock;
+    }
+    
+    public void setInStock(Boolean inStock) {
+        this.inStock = inStock;
+    }
+}
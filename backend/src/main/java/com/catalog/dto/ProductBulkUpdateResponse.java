@@ -0,0 +1,33 @@
+package com.catalog.dto;
+
+public class ProductBulkUpdateResponse {
+    
+    // Products matching the selection, all of which were updated
+    private int updated;
+    
+    // Of those, products whose price was left as is (cost-plus pricing without a cost price)
+    private long priceUnchanged;
+    
+    public ProductBulkUpdateResponse() {}
+    
+    public ProductBulkUpdateResponse(int updated, long priceUnchanged) {
+        this.updated = updated;
+        this.priceUnchanged = priceUnchanged;
+    }
+    
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public long getPriceUnchanged() {
+        return priceUnchanged;
+    }
+    
+    public void setPriceUnchanged(long priceUnchanged) {
+        this.priceUnchanged = priceUnchanged;
+    }
+}
@@ -0,0 +1,73 @@
+package com.catalog.dto;
+
+import com.catalog.entity.CatalogChange;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeDto {
+    
+    // Change log id of the latest entry for this product in the page
+    private Long cursor;
+    
+    private Long productId;
+    
+    private CatalogChange.Operation operation;
+    
+    private LocalDateTime changedAt;
+    
+    // Current state of the product; absent for deleted products
+    private ProductDto product;
+    
+    public ProductChangeDto() {}
+    
+    public ProductChangeDto(Long cursor, Long productId, CatalogChange.Operation operation,
+                            LocalDateTime changedAt, ProductDto product) {
+        this.cursor = cursor;
+        this.productId = productId;
+        this.operation = operation;
+        this.changedAt = changedAt;
+        this.product = product;
+    }
+    
+    public Long getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public CatalogChange.Operation getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(CatalogChange.Operation operation) {
+        this.operation = operation;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    public ProductDto getProduct() {
+        return product;
+    }
+    
+    public void setProduct(ProductDto product) {
+        this.product = product;
+    }
+}
@@ -0,0 +1,47 @@
+package com.catalog.dto;
+
+import java.util.List;
+
+public class ProductChangesResponse {
+    
+    // One entry per changed product, ordered by cursor
+    private List<ProductChangeDto> changes;
+    
+    // Pass as "since" on the next call
+    private long nextCursor;
+    
+    // More changes are waiting past nextCursor
+    private boolean hasMore;
+    
+    public ProductChangesResponse() {}
+    
+    public ProductChangesResponse(List<ProductChangeDto> changes, long nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    public List<ProductChangeDto> getChanges() {
+        return changes;
+    }
+    
+    public void setChanges(List<ProductChangeDto> changes) {
+        this.changes = changes;
+    }
+    
+    public long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
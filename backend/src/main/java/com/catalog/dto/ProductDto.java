@@ -1,18 +1,38 @@
 package com.catalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+// Absent rather than null, so sparse fieldsets (see ProductFields) only carry what was asked for
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductDto {
     
     private Long id;
+    
+    @NotBlank(message = "Product name is required")
+    @Size(max = 255, message = "Product name must not exceed 255 characters")
     private String name;
+    
     private String description;
+    
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
     private BigDecimal price;
+    
+    @DecimalMin(value = "0.0", inclusive = false, message = "Cost price must be greater than 0")
     private BigDecimal costPrice; // Hidden field - only visible to admins
+    
+    @NotBlank(message = "Category is required")
     private String category;
+    
     private String primaryImageUrl; // Primary image URL from uploaded images
     private Boolean inStock;
     private LocalDateTime createdAt;
@@ -0,0 +1,136 @@
+package com.catalog.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The {@link ProductDto} properties a listing request asked for, through {@code fields=name,price}
+ * or {@code view=card|full} (the default). Besides trimming the response, it tells the listing
+ * which data to load at all: descriptions, images and filter values are only read when requested.
+ * The id is always included.
+ */
+public class ProductFields {
+    
+    public static final String DESCRIPTION = "description";
+    public static final String PRIMARY_IMAGE_URL = "primaryImageUrl";
+    public static final String IMAGES = "images";
+    public static final String FILTER_VALUES = "filterValues";
+    
+    private static final List<String> ALL = List.of("id", "name", DESCRIPTION, "price", "costPrice", "category",
+            PRIMARY_IMAGE_URL, "inStock", "createdAt", "updatedAt", FILTER_VALUES, IMAGES, "margin", "marginPercentage");
+    
+    public static final ProductFields FULL = new ProductFields(new LinkedHashSet<>(ALL));
+    
+    // What a product grid tile shows
+    public static final ProductFields CARD = new ProductFields(
+            new LinkedHashSet<>(List.of("id", "name", "price", "category", PRIMARY_IMAGE_URL, "inStock")));
+    
+    private final Set<String> fields;
+    
+    private ProductFields(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+    
+    /**
+     * Parses the {@code fields} and {@code view} request parameters, either of which may be
+     * {@code null}.
+     *
+     * @throws IllegalArgumentException for unknown fields or views, or when both are given
+     */
+    public static ProductFields of(String fields, String view) {
+        boolean hasFields = fields != null && !fields.isBlank();
+        boolean hasView = view != null && !view.isBlank();
+        if (hasFields && hasView) {
+            throw new IllegalArgumentException("Use either fields or view, not both");
+        }
+        
+        if (hasFields) {
+            Set<String> selected = new LinkedHashSet<>();
+            selected.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (!ALL.contains(name)) {
+                    throw new IllegalArgumentException("Unknown product field: " + name);
+                }
+                selected.add(name);
+            }
+            return new ProductFields(selected);
+        }
+        
+        if (!hasView || view.equals("full")) {
+            return FULL;
+        }
+        if (view.equals("card")) {
+            return CARD;
+        }
+        throw new IllegalArgumentException("Unknown product view: " + view + " (expected card or full)");
+    }
+    
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+    
+    public boolean isFull() {
+        return fields.size() == ALL.size();
+    }
+    
+    /**
+     * Clears the properties that were not asked for, so they are left out of the JSON.
+     */
+    public ProductDto apply(ProductDto dto) {
+        if (isFull()) {
+            return dto;
+        }
+        if (!includes("name")) {
+            dto.setName(null);
+        }
+        if (!includes(DESCRIPTION)) {
+            dto.setDescription(null);
+        }
+        if (!includes("price")) {
+            dto.setPrice(null);
+        }
+        if (!includes("costPrice")) {
+            dto.setCostPrice(null);
+        }
+        if (!includes("category")) {
+            dto.setCategory(null);
+        }
+        if (!includes(PRIMARY_IMAGE_URL)) {
+            dto.setPrimaryImageUrl(null);
+        }
+        if (!includes("inStock")) {
+            dto.setInStock(null);
+        }
+        if (!includes("createdAt")) {
+            dto.setCreatedAt(null);
+        }
+        if (!includes("updatedAt")) {
+            dto.setUpdatedAt(null);
+        }
+        if (!includes(FILTER_VALUES)) {
+            dto.setFilterValues(null);
+        }
+        if (!includes(IMAGES)) {
+            dto.setImages(null);
+        }
+        if (!includes("margin")) {
+            dto.setMargin(null);
+        }
+        if (!includes("marginPercentage")) {
+            dto.setMarginPercentage(null);
+        }
+        return dto;
+    }
+    
+    /**
+     * The selected fields in a canonical order, e.g. for cache keys.
+     */
+    @Override
+    public String toString() {
+        return String.join(",", new TreeSet<>(fields));
+    }
+}
@@ -0,0 +1,123 @@
+package com.catalog.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One admin or owner write request: who sent it, what it targeted and how it ended. Rows are only
+ * written in batches by {@link com.catalog.service.AuditLogService}; {@code userId} is not a
+ * foreign key, so entries outlive deleted users.
+ */
+@Entity
+@Table(name = "audit_log",
+       indexes = {
+           @Index(name = "idx_audit_log_occurred_at", columnList = "occurred_at"),
+           @Index(name = "idx_audit_log_user", columnList = "user_id, occurred_at")
+       })
+public class AuditEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "user_email")
+    private String userEmail;
+    
+    // HTTP method and the matched path pattern, e.g. "PUT /api/admin/products/{id}"
+    @Column(nullable = false)
+    private String action;
+    
+    // Path variables of the request, e.g. "productId=12, imageId=40"
+    private String target;
+    
+    @Column(nullable = false)
+    private Integer status;
+    
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+    
+    // Constructors
+    public AuditEvent() {}
+    
+    public AuditEvent(LocalDateTime occurredAt, Long userId, String userEmail, String action, String target,
+                      Integer status, String clientIp) {
+        this.occurredAt = occurredAt;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.action = action;
+        this.target = target;
+        this.status = status;
+        this.clientIp = clientIp;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getUserEmail() {
+        return userEmail;
+    }
+    
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    public String getTarget() {
+        return target;
+    }
+    
+    public void setTarget(String target) {
+        this.target = target;
+    }
+    
+    public Integer getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+    
+    public String getClientIp() {
+        return clientIp;
+    }
+    
+    public void setClientIp(String clientIp) {
+        this.clientIp = clientIp;
+    }
+}
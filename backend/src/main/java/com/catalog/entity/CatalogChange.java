@@ -0,0 +1,104 @@
+package com.catalog.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only catalog change log behind {@code GET /api/products/changes}. The id
+ * doubles as the feed cursor. {@code productId} is not a foreign key, so entries outlive the
+ * products they describe.
+ */
+@Entity
+@Table(name = "catalog_changes",
+       indexes = @Index(name = "idx_catalog_changes_changed_at", columnList = "changed_at"))
+public class CatalogChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    // What was written: the product itself or one of its images (see CatalogVersionService)
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType;
+    
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Operation operation;
+    
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private LocalDateTime changedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        changedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public CatalogChange() {}
+    
+    public CatalogChange(Long productId, String entityType, Long entityId, Operation operation) {
+        this.productId = productId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getEntityType() {
+        return entityType;
+    }
+    
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+    
+    public Operation getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -2,10 +2,16 @@ package com.catalog.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "categories")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@NaturalIdCache(region = "category-by-name")
 public class Category {
     
     @Id
@@ -14,6 +20,7 @@ public class Category {
     
     @NotBlank(message = "Category name is required")
     @Size(max = 100, message = "Category name must not exceed 100 characters")
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String name;
     
@@ -2,11 +2,17 @@ package com.catalog.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "filters")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "filter")
+@NaturalIdCache(region = "filter-by-name")
 public class Filter {
     
     @Id
@@ -15,6 +21,7 @@ public class Filter {
     
     @NotBlank(message = "Filter name is required")
     @Size(max = 100, message = "Filter name must not exceed 100 characters")
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String name;
     
@@ -34,6 +41,7 @@ public class Filter {
     private Boolean active = true;
     
     @OneToMany(mappedBy = "filter", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "filter-values-by-filter")
     private List<FilterValue> filterValues;
     
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -2,10 +2,13 @@ package com.catalog.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "filter_values")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "filter-value")
 public class FilterValue {
     
     @Id
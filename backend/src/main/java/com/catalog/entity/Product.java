@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_id", columnList = "category_id")
+})
 public class Product {
     
     @Id
@@ -30,10 +32,11 @@ public class Product {
     @Column(name = "cost_price", precision = 10, scale = 2)
     private BigDecimal costPrice;
     
-    @NotBlank(message = "Category is required")
-    @Size(max = 100, message = "Category must not exceed 100 characters")
-    @Column(nullable = false)
-    private String category;
+    // Nullable in the schema only so existing rows can be backfilled (see ProductCategoryMigration)
+    @NotNull(message = "Category is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
     
     @Column(name = "in_stock", nullable = false)
     private Boolean inStock = true;
@@ -58,7 +61,7 @@ public class Product {
     // Constructors
     public Product() {}
     
-    public Product(String name, String description, BigDecimal price, String category) {
+    public Product(String name, String description, BigDecimal price, Category category) {
         this.name = name;
         this.description = description;
         this.price = price;
@@ -123,11 +126,11 @@ public class Product {
         this.costPrice = costPrice;
     }
     
-    public String getCategory() {
+    public Category getCategory() {
         return category;
     }
     
-    public void setCategory(String category) {
+    public void setCategory(Category category) {
         this.category = category;
     }
     
@@ -0,0 +1,64 @@
+package com.catalog.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Accumulated view and impression counts of one product. Rows are only written by the batched
+ * flush in {@link com.catalog.service.ProductStatsService}; {@code productId} is not a foreign key,
+ * so counting never has to wait on product writes.
+ */
+@Entity
+@Table(name = "product_stats",
+       indexes = @Index(name = "idx_product_stats_views", columnList = "views"))
+public class ProductStats {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Long views = 0L;
+    
+    @Column(nullable = false)
+    private Long impressions = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public ProductStats() {}
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Long getViews() {
+        return views;
+    }
+    
+    public void setViews(Long views) {
+        this.views = views;
+    }
+    
+    public Long getImpressions() {
+        return impressions;
+    }
+    
+    public void setImpressions(Long impressions) {
+        this.impressions = impressions;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
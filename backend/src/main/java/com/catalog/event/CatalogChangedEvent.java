@@ -0,0 +1,34 @@
+package com.catalog.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a committed write to anything shown in the public catalog (products, their
+ * images and filter values, categories, filters). {@code version} is the catalog version the
+ * write produced; versions only grow, so listeners can tell whether they are behind.
+ */
+public class CatalogChangedEvent extends ApplicationEvent {
+    
+    private final String entityType;
+    private final Long entityId;
+    private final long version;
+    
+    public CatalogChangedEvent(Object source, String entityType, Long entityId, long version) {
+        super(source);
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.version = version;
+    }
+    
+    public String getEntityType() {
+        return entityType;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,40 @@
+package com.catalog.mapper;
+
+import com.catalog.dto.AuditEventDto;
+import com.catalog.entity.AuditEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Audit events are only ever read through the API, so there is no mapping back to the entity
+@Component
+public class AuditEventMapper {
+    
+    public AuditEventDto toDto(AuditEvent auditEvent) {
+        if (auditEvent == null) {
+            return null;
+        }
+        
+        return new AuditEventDto(
+            auditEvent.getId(),
+            auditEvent.getOccurredAt(),
+            auditEvent.getUserId(),
+            auditEvent.getUserEmail(),
+            auditEvent.getAction(),
+            auditEvent.getTarget(),
+            auditEvent.getStatus(),
+            auditEvent.getClientIp()
+        );
+    }
+    
+    public List<AuditEventDto> toDtoList(List<AuditEvent> auditEvents) {
+        if (auditEvents == null) {
+            return null;
+        }
+        
+        return auditEvents.stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,9 +1,11 @@
 package com.catalog.mapper;
 
 import com.catalog.dto.ProductDto;
+import com.catalog.dto.ProductFields;
 import com.catalog.dto.ProductImageDto;
 import com.catalog.entity.Product;
 import com.catalog.entity.ProductImage;
+import com.catalog.service.CategoryService;
 import com.catalog.service.ProductFilterService;
 import com.catalog.service.ProductImageService;
 import org.slf4j.Logger;
@@ -13,9 +15,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
@@ -32,6 +36,9 @@ public class ProductMapper {
     @Autowired
     private ProductImageMapper productImageMapper;
     
+    @Autowired
+    private CategoryService categoryService;
+    
     public ProductDto toDto(Product product) {
         return toDto(product, false);
     }
@@ -44,12 +51,35 @@ public class ProductMapper {
         // Check if current user is admin
         boolean isAdmin = includeAdminFields || isCurrentUserAdmin();
         
+        Map<String, List<String>> filterValues = Collections.emptyMap();
+        List<ProductImage> images = Collections.emptyList();
+        
+        // Add filter values if product has an ID (i.e., it's persisted)
+        if (product.getId() != null) {
+            try {
+                filterValues = productFilterService.getProductFilterValues(product.getId());
+            } catch (Exception e) {
+                logger.error("Error fetching filter values for product {}", product.getId(), e);
+            }
+            
+            try {
+                images = productImageService.getProductImages(product.getId());
+            } catch (Exception e) {
+                logger.error("Error fetching images for product {}", product.getId(), e);
+            }
+        }
+        
+        return toDto(product, isAdmin, filterValues, images);
+    }
+    
+    private ProductDto toDto(Product product, boolean isAdmin,
+                             Map<String, List<String>> filterValues, List<ProductImage> images) {
         ProductDto dto = new ProductDto(
             product.getId(),
             product.getName(),
             product.getDescription(),
             product.getPrice(),
-            product.getCategory(),
+            product.getCategory() != null ? product.getCategory().getName() : null,
             product.getInStock(),
             product.getCreatedAt(),
             product.getUpdatedAt()
@@ -61,33 +91,20 @@ public class ProductMapper {
             dto.calculateMargins();
         }
         
-        // Add filter values if product has an ID (i.e., it's persisted)
         if (product.getId() != null) {
-            try {
-                Map<String, List<String>> filterValues = productFilterService.getProductFilterValues(product.getId());
-                dto.setFilterValues(filterValues);
-            } catch (Exception e) {
-                logger.error("Error fetching filter values for product {}", product.getId(), e);
-            }
+            dto.setFilterValues(filterValues);
             
-            try {
-                // Get product images
-                List<ProductImage> images = productImageService.getProductImages(product.getId());
-                if (!images.isEmpty()) {
-                    List<ProductImageDto> imageDtos = productImageMapper.toDtoList(images);
-                    dto.setImages(imageDtos);
-                    
-                    // Set primary image URL
-                    Optional<ProductImage> primaryImage = productImageService.getPrimaryImage(product.getId());
-                    if (primaryImage.isPresent()) {
-                        dto.setPrimaryImageUrl(primaryImage.get().getImageUrl());
-                    } else if (!images.isEmpty()) {
-                        // If no primary image is set, use the first image
-                        dto.setPrimaryImageUrl(images.get(0).getImageUrl());
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error fetching images for product {}", product.getId(), e);
+            if (!images.isEmpty()) {
+                List<ProductImageDto> imageDtos = productImageMapper.toDtoList(images);
+                dto.setImages(imageDtos);
+                
+                // Set primary image URL, falling back to the first image if no primary image is set
+                String primaryImageUrl = images.stream()
+                        .filter(image -> Boolean.TRUE.equals(image.getIsPrimary()))
+                        .findFirst()
+                        .orElse(images.get(0))
+                        .getImageUrl();
+                dto.setPrimaryImageUrl(primaryImageUrl);
             }
         }
         
@@ -109,8 +126,13 @@ public class ProductMapper {
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
         product.setCostPrice(productDto.getCostPrice());
-        product.setCategory(productDto.getCategory());
-        product.setInStock(productDto.getInStock());
+        if (productDto.getCategory() != null) {
+            product.setCategory(categoryService.getCategoryByName(productDto.getCategory()).orElse(null));
+        }
+        // Left out of a request, it keeps the entity's default
+        if (productDto.getInStock() != null) {
+            product.setInStock(productDto.getInStock());
+        }
         product.setCreatedAt(productDto.getCreatedAt());
         product.setUpdatedAt(productDto.getUpdatedAt());
         
@@ -122,13 +144,54 @@ public class ProductMapper {
     }
     
     public List<ProductDto> toDtoList(List<Product> products, boolean includeAdminFields) {
+        return toDtoList(products, includeAdminFields, ProductFields.FULL);
+    }
+    
+    /**
+     * Maps a listing down to the requested fields; filter values and images are only loaded when
+     * a field that shows them was requested.
+     */
+    public List<ProductDto> toDtoList(List<Product> products, boolean includeAdminFields, ProductFields fields) {
         if (products == null) {
             return null;
         }
         
-        return products.stream()
-                .map(product -> toDto(product, includeAdminFields))
+        boolean isAdmin = includeAdminFields || isCurrentUserAdmin();
+        
+        // Load filter values and images for the whole page up front instead of per product
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        
+        Map<Long, Map<String, List<String>>> filterValuesByProduct = Collections.emptyMap();
+        Map<Long, List<ProductImage>> imagesByProduct = Collections.emptyMap();
+        
+        if (!productIds.isEmpty()) {
+            if (fields.includes(ProductFields.FILTER_VALUES)) {
+                try {
+                    filterValuesByProduct = productFilterService.getProductFilterValues(productIds);
+                } catch (Exception e) {
+                    logger.error("Error fetching filter values for {} products", productIds.size(), e);
+                }
+            }
+            
+            if (fields.includes(ProductFields.IMAGES) || fields.includes(ProductFields.PRIMARY_IMAGE_URL)) {
+                try {
+                    imagesByProduct = productImageService.getProductImages(productIds);
+                } catch (Exception e) {
+                    logger.error("Error fetching images for {} products", productIds.size(), e);
+                }
+            }
+        }
+        
+        List<ProductDto> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            dtos.add(fields.apply(toDto(product, isAdmin,
+                    filterValuesByProduct.getOrDefault(product.getId(), Collections.emptyMap()),
+                    imagesByProduct.getOrDefault(product.getId(), Collections.emptyList()))));
+        }
+        return dtos;
     }
     
     public List<ProductDto> toDtoListForAdmin(List<Product> products) {
@@ -145,7 +208,7 @@ public class ProductMapper {
                 .collect(Collectors.toList());
     }
     
-    private boolean isCurrentUserAdmin() {
+    public boolean isCurrentUserAdmin() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null && authentication.isAuthenticated()) {
@@ -0,0 +1,20 @@
+package com.catalog.repository;
+
+import com.catalog.entity.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+    
+    @Query("SELECT e FROM AuditEvent e ORDER BY e.occurredAt DESC, e.id DESC")
+    List<AuditEvent> findRecent(Pageable pageable);
+    
+    @Query("SELECT e FROM AuditEvent e WHERE e.userId = :userId ORDER BY e.occurredAt DESC, e.id DESC")
+    List<AuditEvent> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+}
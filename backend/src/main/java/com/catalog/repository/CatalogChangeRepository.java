@@ -0,0 +1,30 @@
+package com.catalog.repository;
+
+import com.catalog.entity.CatalogChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    
+    @Query("SELECT c FROM CatalogChange c WHERE c.id > :since AND c.changedAt <= :settledBefore ORDER BY c.id")
+    List<CatalogChange> findSettledSince(@Param("since") Long since,
+                                         @Param("settledBefore") LocalDateTime settledBefore,
+                                         Pageable pageable);
+    
+    @Query("SELECT MIN(c.id) FROM CatalogChange c")
+    Long findMinId();
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CatalogChange c WHERE c.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
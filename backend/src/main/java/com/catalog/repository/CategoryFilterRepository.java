@@ -13,6 +13,9 @@ public interface CategoryFilterRepository extends JpaRepository<CategoryFilter,
     
     List<CategoryFilter> findByCategoryId(Long categoryId);
     
+    @Query("SELECT DISTINCT cf FROM CategoryFilter cf JOIN FETCH cf.filter f LEFT JOIN FETCH f.filterValues WHERE cf.category.id = :categoryId")
+    List<CategoryFilter> findByCategoryIdWithFilterValues(@Param("categoryId") Long categoryId);
+    
     List<CategoryFilter> findByFilterId(Long filterId);
     
     void deleteByCategoryId(Long categoryId);
@@ -0,0 +1,14 @@
+package com.catalog.repository;
+
+import com.catalog.entity.Category;
+
+import java.util.Optional;
+
+public interface CategoryRepositoryCustom {
+    
+    /**
+     * Looks the category up by its natural id, so repeated lookups are served from the
+     * second-level cache instead of querying by name.
+     */
+    Optional<Category> findByName(String name);
+}
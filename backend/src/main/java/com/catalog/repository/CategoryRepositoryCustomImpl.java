@@ -0,0 +1,19 @@
+package com.catalog.repository;
+
+import com.catalog.entity.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Category> findByName(String name) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Category.class).loadOptional(name);
+    }
+}
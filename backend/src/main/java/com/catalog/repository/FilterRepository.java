@@ -6,15 +6,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface FilterRepository extends JpaRepository<Filter, Long> {
+public interface FilterRepository extends JpaRepository<Filter, Long>, FilterRepositoryCustom {
     
     List<Filter> findByActiveOrderByDisplayOrderAsc(Boolean active);
     
-    Optional<Filter> findByName(String name);
-    
     Boolean existsByName(String name);
     
     @Query("SELECT f FROM Filter f WHERE f.active = true ORDER BY f.displayOrder ASC, f.name ASC")
@@ -22,4 +19,7 @@ public interface FilterRepository extends JpaRepository<Filter, Long> {
     
     @Query("SELECT f FROM Filter f ORDER BY f.displayOrder ASC, f.name ASC")
     List<Filter> findAllOrderedFilters();
+    
+    @Query("SELECT DISTINCT f FROM Filter f LEFT JOIN FETCH f.filterValues ORDER BY f.displayOrder ASC, f.name ASC")
+    List<Filter> findAllOrderedFiltersWithValues();
 }
\ No newline at end of file
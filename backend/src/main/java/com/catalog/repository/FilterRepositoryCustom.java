@@ -0,0 +1,14 @@
+package com.catalog.repository;
+
+import com.catalog.entity.Filter;
+
+import java.util.Optional;
+
+public interface FilterRepositoryCustom {
+    
+    /**
+     * Looks the filter up by its natural id, so repeated lookups are served from the
+     * second-level cache instead of querying by name.
+     */
+    Optional<Filter> findByName(String name);
+}
@@ -0,0 +1,19 @@
+package com.catalog.repository;
+
+import com.catalog.entity.Filter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class FilterRepositoryCustomImpl implements FilterRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Filter> findByName(String name) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Filter.class).loadOptional(name);
+    }
+}
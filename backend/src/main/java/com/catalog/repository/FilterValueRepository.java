@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +21,16 @@ public interface FilterValueRepository extends JpaRepository<FilterValue, Long>
     Optional<FilterValue> findByFilterIdAndValue(@Param("filterId") Long filterId, @Param("value") String value);
     
     Boolean existsByFilterIdAndValue(Long filterId, String value);
+    
+    @Query("SELECT fv FROM FilterValue fv JOIN FETCH fv.filter f WHERE f.name IN :filterNames")
+    List<FilterValue> findByFilterNames(@Param("filterNames") Collection<String> filterNames);
+    
+    @Query("SELECT fv FROM FilterValue fv JOIN FETCH fv.filter f WHERE f.active = true AND fv.active = true " +
+           "ORDER BY f.displayOrder ASC, f.name ASC, fv.displayOrder ASC, fv.id ASC")
+    List<FilterValue> findAllActiveWithFilter();
+    
+    @Query("SELECT fv FROM FilterValue fv JOIN FETCH fv.filter f WHERE f.active = true AND fv.active = true " +
+           "AND f.id IN (SELECT cf.filter.id FROM CategoryFilter cf WHERE cf.category.name = :categoryName) " +
+           "ORDER BY f.displayOrder ASC, f.name ASC, fv.displayOrder ASC, fv.id ASC")
+    List<FilterValue> findAllActiveWithFilterByCategoryName(@Param("categoryName") String categoryName);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -27,6 +28,15 @@ public interface ProductFilterRepository extends JpaRepository<ProductFilter, Lo
     @Query("SELECT DISTINCT pf.product.id FROM ProductFilter pf WHERE pf.filter.id = :filterId AND pf.filterValue.value IN :values")
     List<Long> findProductIdsByFilterAndValues(@Param("filterId") Long filterId, @Param("values") List<String> values);
     
+    @Query("SELECT pf.product.id, pf.filter.name, pf.filterValue.value FROM ProductFilter pf WHERE pf.product.id IN :productIds")
+    List<Object[]> findFilterValuesByProductIds(@Param("productIds") Collection<Long> productIds);
+    
+    @Query("SELECT p.id, c.id, pf.filterValue.id FROM ProductFilter pf JOIN pf.product p LEFT JOIN p.category c")
+    List<Object[]> findAllAssignments();
+    
+    @Query("SELECT p.id, c.id, pf.filterValue.id FROM ProductFilter pf JOIN pf.product p LEFT JOIN p.category c WHERE p.id IN :productIds")
+    List<Object[]> findAssignmentsByProductIds(@Param("productIds") Collection<Long> productIds);
+    
     @Query("SELECT pf FROM ProductFilter pf WHERE pf.product.id = :productId AND pf.filter.id = :filterId")
     List<ProductFilter> findByProductIdAndFilterId(@Param("productId") Long productId, @Param("filterId") Long filterId);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,9 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     
     List<ProductImage> findByProductIdOrderByDisplayOrderAscIdAsc(Long productId);
     
+    @Query("SELECT pi FROM ProductImage pi WHERE pi.product.id IN :productIds ORDER BY pi.displayOrder ASC, pi.id ASC")
+    List<ProductImage> findByProductIds(@Param("productIds") Collection<Long> productIds);
+    
     Optional<ProductImage> findByProductIdAndIsPrimary(Long productId, Boolean isPrimary);
     
     @Query("SELECT pi FROM ProductImage pi WHERE pi.product.id = :productId AND pi.isPrimary = true")
@@ -26,6 +30,9 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     @Query("UPDATE ProductImage pi SET pi.isPrimary = false WHERE pi.product.id = :productId")
     void clearPrimaryImageForProduct(@Param("productId") Long productId);
     
+    @Query("SELECT pi.imageUrl FROM ProductImage pi WHERE pi.product.id = :productId")
+    List<String> findImageUrlsByProductId(@Param("productId") Long productId);
+    
     @Modifying
     @Transactional
     @Query("DELETE FROM ProductImage pi WHERE pi.product.id = :productId")
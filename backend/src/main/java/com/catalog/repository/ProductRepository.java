@@ -1,37 +1,77 @@
 package com.catalog.repository;
 
 import com.catalog.entity.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
-    List<Product> findByCategory(String category);
+    // Listings fetch the category with the product, since every DTO shows its name
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
     
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+    
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByCategoryId(Long categoryId);
+    
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    long countByCategoryId(Long categoryId);
+    
+    @EntityGraph(attributePaths = "category")
     List<Product> findByInStock(Boolean inStock);
     
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> findByKeyword(@Param("keyword") String keyword);
     
-    @Query("SELECT p FROM Product p WHERE p.category = :category AND " +
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND " +
            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Product> findByCategoryAndKeyword(@Param("category") String category, 
-                                         @Param("keyword") String keyword);
+    List<Product> findByCategoryIdAndKeyword(@Param("categoryId") Long categoryId, 
+                                           @Param("keyword") String keyword);
     
-    @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
+    @Query("SELECT c.name FROM Category c WHERE EXISTS (SELECT 1 FROM Product p WHERE p.category = c) ORDER BY c.name")
     List<String> findAllCategories();
     
+    @EntityGraph(attributePaths = "category")
     List<Product> findByOrderByCreatedAtDesc();
     
+    @EntityGraph(attributePaths = "category")
     List<Product> findByOrderByPriceAsc();
     
+    @EntityGraph(attributePaths = "category")
     List<Product> findByOrderByPriceDesc();
+    
+    // Empty when the product does not exist; a single null element when it has no timestamp
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    List<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    // Marks the product as changed when only its images or filter values were edited
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.updatedAt = :updatedAt WHERE p.id = :id")
+    int touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.catalog.repository;
+
+import com.catalog.dto.ProductBulkUpdateRequest;
+import com.catalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    
+    /**
+     * Loads products like the listing queries do (optionally limited to a category and/or matching a
+     * keyword in name or description) but without reading the description column. The returned
+     * products are detached copies with {@code description} left {@code null}, for read-only use.
+     */
+    List<Product> findWithoutDescription(Long categoryId, String keyword);
+    
+    /**
+     * Applies a price adjustment ({@code priceMode} {@code null} for none) and/or stock flag
+     * ({@code null} for none) to all selected products in one UPDATE statement, bumping their
+     * {@code updatedAt}. Returns the number of products updated.
+     */
+    int bulkUpdate(Selection selection, ProductBulkUpdateRequest.PriceMode priceMode, BigDecimal priceValue,
+                   Boolean inStock, LocalDateTime updatedAt);
+    
+    /**
+     * Number of selected products the price adjustment would leave at zero or below.
+     */
+    long countNonPositivePrices(Selection selection, ProductBulkUpdateRequest.PriceMode priceMode,
+                                BigDecimal priceValue);
+    
+    long countWithoutCostPrice(Selection selection);
+    
+    /**
+     * Appends an UPDATED change log entry for each selected product in one INSERT ... SELECT.
+     */
+    int recordBulkChanges(Selection selection, LocalDateTime changedAt);
+    
+    /**
+     * Products matching all given criteria: ids, category and, per filter name, any of its values.
+     * {@code null} or empty criteria are left out.
+     */
+    class Selection {
+        
+        private final Collection<Long> ids;
+        private final Long categoryId;
+        private final Map<String, List<String>> filters;
+        
+        public Selection(Collection<Long> ids, Long categoryId, Map<String, List<String>> filters) {
+            this.ids = ids;
+            this.categoryId = categoryId;
+            this.filters = filters;
+        }
+        
+        public Collection<Long> getIds() {
+            return ids;
+        }
+        
+        public Long getCategoryId() {
+            return categoryId;
+        }
+        
+        public Map<String, List<String>> getFilters() {
+            return filters;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.catalog.repository;
+
+import com.catalog.dto.ProductBulkUpdateRequest;
+import com.catalog.entity.CatalogChange;
+import com.catalog.entity.Category;
+import com.catalog.entity.Product;
+import com.catalog.service.CatalogVersionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Product> findWithoutDescription(Long categoryId, String keyword) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT p.id, p.name, p.price, p.costPrice, p.inStock, p.createdAt, p.updatedAt, c " +
+                "FROM Product p JOIN p.category c WHERE 1 = 1");
+        if (categoryId != null) {
+            jpql.append(" AND c.id = :categoryId");
+        }
+        if (keyword != null) {
+            jpql.append(" AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                        "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))");
+        }
+        
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (keyword != null) {
+            query.setParameter("keyword", keyword);
+        }
+        
+        List<Object[]> rows = query.getResultList();
+        List<Product> products = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Product product = new Product();
+            product.setId((Long) row[0]);
+            product.setName((String) row[1]);
+            product.setPrice((BigDecimal) row[2]);
+            product.setCostPrice((BigDecimal) row[3]);
+            product.setInStock((Boolean) row[4]);
+            product.setCreatedAt((LocalDateTime) row[5]);
+            product.setUpdatedAt((LocalDateTime) row[6]);
+            product.setCategory((Category) row[7]);
+            products.add(product);
+        }
+        return products;
+    }
+    
+    @Override
+    public int bulkUpdate(Selection selection, ProductBulkUpdateRequest.PriceMode priceMode, BigDecimal priceValue,
+                          Boolean inStock, LocalDateTime updatedAt) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("UPDATE Product p SET p.updatedAt = :updatedAt");
+        parameters.put("updatedAt", updatedAt);
+        if (priceMode != null) {
+            jpql.append(", p.price = ").append(priceExpression(priceMode, priceValue, parameters));
+        }
+        if (inStock != null) {
+            jpql.append(", p.inStock = :inStock");
+            parameters.put("inStock", inStock);
+        }
+        jpql.append(" WHERE 1 = 1");
+        appendSelection(jpql, selection, parameters);
+        return bind(entityManager.createQuery(jpql.toString()), parameters).executeUpdate();
+    }
+    
+    @Override
+    public long countNonPositivePrices(Selection selection, ProductBulkUpdateRequest.PriceMode priceMode,
+                                       BigDecimal priceValue) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(p) FROM Product p WHERE ")
+                .append(priceExpression(priceMode, priceValue, parameters)).append(" <= 0");
+        appendSelection(jpql, selection, parameters);
+        return (Long) bind(entityManager.createQuery(jpql.toString()), parameters).getSingleResult();
+    }
+    
+    @Override
+    public long countWithoutCostPrice(Selection selection) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(p) FROM Product p WHERE p.costPrice IS NULL");
+        appendSelection(jpql, selection, parameters);
+        return (Long) bind(entityManager.createQuery(jpql.toString()), parameters).getSingleResult();
+    }
+    
+    @Override
+    public int recordBulkChanges(Selection selection, LocalDateTime changedAt) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder(
+                "INSERT INTO CatalogChange (productId, entityType, entityId, operation, changedAt) " +
+                "SELECT p.id, :entityType, p.id, :operation, :changedAt FROM Product p WHERE 1 = 1");
+        parameters.put("entityType", CatalogVersionService.PRODUCT);
+        parameters.put("operation", CatalogChange.Operation.UPDATED);
+        parameters.put("changedAt", changedAt);
+        appendSelection(jpql, selection, parameters);
+        return bind(entityManager.createQuery(jpql.toString()), parameters).executeUpdate();
+    }
+    
+    // The new price of p, rounded to cents like the price column
+    private static String priceExpression(ProductBulkUpdateRequest.PriceMode priceMode, BigDecimal priceValue,
+                                          Map<String, Object> parameters) {
+        switch (priceMode) {
+            case PERCENT:
+                parameters.put("priceFactor", percentFactor(priceValue));
+                return "ROUND(p.price * :priceFactor, 2)";
+            case ABSOLUTE:
+                parameters.put("priceAmount", priceValue);
+                return "(p.price + :priceAmount)";
+            case COST_PLUS:
+                parameters.put("priceFactor", percentFactor(priceValue));
+                return "(CASE WHEN p.costPrice IS NULL THEN p.price ELSE ROUND(p.costPrice * :priceFactor, 2) END)";
+            default:
+                throw new IllegalArgumentException("Unknown price mode: " + priceMode);
+        }
+    }
+    
+    private static BigDecimal percentFactor(BigDecimal percent) {
+        return BigDecimal.ONE.add(percent.divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP));
+    }
+    
+    private static void appendSelection(StringBuilder jpql, Selection selection, Map<String, Object> parameters) {
+        if (selection.getIds() != null && !selection.getIds().isEmpty()) {
+            jpql.append(" AND p.id IN :ids");
+            parameters.put("ids", selection.getIds());
+        }
+        if (selection.getCategoryId() != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+            parameters.put("categoryId", selection.getCategoryId());
+        }
+        if (selection.getFilters() != null) {
+            // Subqueries rather than joins, which UPDATE statements do not allow
+            int index = 0;
+            for (Map.Entry<String, List<String>> filter : selection.getFilters().entrySet()) {
+                jpql.append(" AND p.id IN (SELECT pf.product.id FROM ProductFilter pf")
+                    .append(" WHERE pf.filter.name = :filterName").append(index)
+                    .append(" AND pf.filterValue.value IN :filterValues").append(index).append(')');
+                parameters.put("filterName" + index, filter.getKey());
+                parameters.put("filterValues" + index, filter.getValue());
+                index++;
+            }
+        }
+    }
+    
+    private static Query bind(Query query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
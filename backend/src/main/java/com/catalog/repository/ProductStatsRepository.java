@@ -0,0 +1,19 @@
+package com.catalog.repository;
+
+import com.catalog.entity.ProductStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+    
+    @Query("SELECT s FROM ProductStats s ORDER BY s.views DESC, s.productId")
+    List<ProductStats> findMostViewed(Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(s.views), 0), COALESCE(SUM(s.impressions), 0) FROM ProductStats s")
+    List<Object[]> sumTotals();
+}
@@ -1,5 +1,6 @@
 package com.catalog.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,10 +33,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.parseJwtToken(jwt) : null;
+            if (claims != null) {
+                // Elsewhere a pure token check: the claims describe the user, the signature vouches for them
+                UserDetails userDetails = requiresCurrentRole(request) ? null : jwtUtils.getPrincipalFromClaims(claims);
+                if (userDetails == null) {
+                    // Admin and owner requests, and tokens issued before they carried the user's details
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                }
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -49,6 +54,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Admin and owner endpoints check the role the user has now rather than the one in the token,
+     * so a demotion takes effect on the next request instead of when the access token expires.
+     */
+    private boolean requiresCurrentRole(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/api/admin/") || path.startsWith("/api/owner/");
+    }
+    
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         
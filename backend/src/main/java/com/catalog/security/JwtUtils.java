@@ -6,9 +6,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Collections;
 import java.util.Date;
 
 @Component
@@ -16,10 +18,16 @@ public class JwtUtils {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
     
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_FIRST_NAME = "firstName";
+    private static final String CLAIM_LAST_NAME = "lastName";
+    private static final String CLAIM_ROLE = "role";
+    
     @Value("${catalog.app.jwtSecret:catalogSecretKey}")
     private String jwtSecret;
     
-    @Value("${catalog.app.jwtExpirationMs:86400000}")
+    // Short-lived: clients renew through a refresh token (see RefreshTokenService) instead
+    @Value("${catalog.app.jwtExpirationMs:900000}")
     private int jwtExpirationMs;
     
     private SecretKey getSigningKey() {
@@ -27,16 +35,64 @@ public class JwtUtils {
     }
     
     public String generateJwtToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        
+        return generateJwtToken((UserPrincipal) authentication.getPrincipal());
+    }
+    
+    // The token carries the user's id, name and role, so requests are authenticated without loading the user
+    public String generateJwtToken(UserPrincipal userPrincipal) {
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+                .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+                .claim(CLAIM_ROLE, userPrincipal.getAuthorities().iterator().next().getAuthority())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    public int getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+    
+    /**
+     * The claims of a valid token, or {@code null} if it is invalid or expired. Parses the token
+     * once, where {@link #validateJwtToken} followed by {@link #getUserNameFromJwtToken} parses it twice.
+     */
+    public Claims parseJwtToken(String authToken) {
+        try {
+            return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken).getBody();
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            // Routine with short-lived tokens: the client refreshes it
+            logger.debug("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token is not valid: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * The user described by a token's claims, or {@code null} for tokens issued before tokens
+     * carried them.
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new UserPrincipal(userId.longValue(), claims.getSubject(), null,
+                claims.get(CLAIM_FIRST_NAME, String.class), claims.get(CLAIM_LAST_NAME, String.class),
+                Collections.singletonList(new SimpleGrantedAuthority(role)));
+    }
+    
     public String getUserNameFromJwtToken(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
@@ -0,0 +1,111 @@
+package com.catalog.security;
+
+import com.catalog.util.SlidingWindowCounter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits sign-in attempts in memory, before any database access or password hashing: per client
+ * address, all attempts within {@code ip-window-ms}; per account and address, failed attempts
+ * within {@code account-window-ms}, so guessing one account's password is slowed down while its
+ * owner can still sign in after a typo. Failures are keyed by address as well as account, so
+ * someone failing on purpose locks out only their own address, not the account's owner. A
+ * successful sign-in clears the failures from that address. Failures for unknown accounts count
+ * the same, so throttling tells nothing about which accounts exist.
+ * <p>
+ * The client address is the request's remote address, which behind a trusted proxy is taken
+ * from {@code X-Forwarded-For} (see {@code server.forward-headers-strategy}). Counts are kept per
+ * instance; behind a load balancer each instance allows the configured number of attempts.
+ */
+@Component
+public class LoginThrottle {
+    
+    @Value("${catalog.auth.throttle.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.auth.throttle.account-failures:5}")
+    private int accountFailures;
+    
+    @Value("${catalog.auth.throttle.account-window-ms:900000}")
+    private long accountWindowMillis;
+    
+    @Value("${catalog.auth.throttle.ip-attempts:30}")
+    private int ipAttempts;
+    
+    @Value("${catalog.auth.throttle.ip-window-ms:60000}")
+    private long ipWindowMillis;
+    
+    @Value("${catalog.auth.throttle.max-keys:100000}")
+    private int maxKeys;
+    
+    private SlidingWindowCounter failuresByAccount;
+    private SlidingWindowCounter attemptsByIp;
+    private final AtomicLong throttledByAccount = new AtomicLong();
+    private final AtomicLong throttledByIp = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        failuresByAccount = new SlidingWindowCounter(accountFailures, accountWindowMillis, maxKeys);
+        attemptsByIp = new SlidingWindowCounter(ipAttempts, ipWindowMillis, maxKeys);
+    }
+    
+    /**
+     * Counts a sign-in attempt unless the account or the address is over its limit.
+     *
+     * @return 0 if the attempt may go ahead, otherwise the seconds until it would be allowed
+     */
+    public long acquire(String email, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long retryAfter = failuresByAccount.retryAfter(accountKey(email, clientIp), now);
+        if (retryAfter > 0) {
+            throttledByAccount.incrementAndGet();
+            return toSeconds(retryAfter);
+        }
+        retryAfter = attemptsByIp.tryRecord(clientIp, now);
+        if (retryAfter > 0) {
+            throttledByIp.incrementAndGet();
+            return toSeconds(retryAfter);
+        }
+        return 0;
+    }
+    
+    public void failed(String email, String clientIp) {
+        if (enabled) {
+            failuresByAccount.record(accountKey(email, clientIp), System.currentTimeMillis());
+        }
+    }
+    
+    public void succeeded(String email, String clientIp) {
+        if (enabled) {
+            failuresByAccount.reset(accountKey(email, clientIp));
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("trackedAccountAddresses", failuresByAccount.size());
+        statistics.put("trackedAddresses", attemptsByIp.size());
+        statistics.put("throttledByAccount", throttledByAccount.get());
+        statistics.put("throttledByIp", throttledByIp.get());
+        return statistics;
+    }
+    
+    private static String accountKey(String email, String clientIp) {
+        String account = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        return account + '|' + clientIp;
+    }
+    
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
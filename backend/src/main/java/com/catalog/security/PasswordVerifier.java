@@ -0,0 +1,98 @@
+package com.catalog.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks passwords on the bounded {@code passwordHashingExecutor} instead of the request thread.
+ * A BCrypt check costs tens of milliseconds of CPU, so a burst of sign-ins running on request
+ * threads would occupy every core; here at most {@code hashing-threads} checks run at once, a few
+ * more wait in the executor's queue, and anything beyond is turned away right away with a
+ * {@link RejectedExecutionException}, leaving the remaining cores to catalog traffic.
+ */
+@Component
+public class PasswordVerifier {
+    
+    @Value("${catalog.auth.hashing-timeout-ms:5000}")
+    private long timeoutMillis;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private ThreadPoolTaskExecutor executor;
+    
+    // Checked against for unknown accounts, so they take as long as known ones
+    private volatile String unknownAccountHash;
+    
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    
+    /**
+     * Whether {@code rawPassword} matches {@code encodedPassword}; with a {@code null} encoded
+     * password (unknown account) a check is still run and the answer is {@code false}.
+     *
+     * @throws RejectedExecutionException if too many checks are already running or waiting, or
+     *         this one did not finish within {@code hashing-timeout-ms}
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordEncoder.matches(rawPassword,
+                    encodedPassword != null ? encodedPassword : unknownAccountHash()));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+        checks.incrementAndGet();
+        
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS) && encodedPassword != null;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timedOut.incrementAndGet();
+            throw new RejectedExecutionException("Password check timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while checking password");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+    
+    private String unknownAccountHash() {
+        String hash = unknownAccountHash;
+        if (hash == null) {
+            // Encoded once on first use, on a hashing thread; a race only encodes it twice
+            hash = passwordEncoder.encode("unknown-account");
+            unknownAccountHash = hash;
+        }
+        return hash;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("threads", executor.getMaxPoolSize());
+        statistics.put("active", executor.getActiveCount());
+        statistics.put("queued", executor.getThreadPoolExecutor().getQueue().size());
+        statistics.put("checks", checks.get());
+        statistics.put("rejected", rejected.get());
+        statistics.put("timedOut", timedOut.get());
+        return statistics;
+    }
+}
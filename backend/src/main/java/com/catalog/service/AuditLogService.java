@@ -0,0 +1,210 @@
+package com.catalog.service;
+
+import com.catalog.entity.AuditEvent;
+import com.catalog.repository.AuditEventRepository;
+import com.catalog.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of admin and owner writes that costs the request thread no database access: events
+ * are put into a bounded lock-free {@link RingBuffer}, and a single writer thread takes them out
+ * and inserts them into {@code audit_log} in batches of up to {@code batch-size}.
+ * <p>
+ * Request threads never wait for the writer. If the buffer is full, because the database is slow
+ * or down, the event is dropped and counted; a batch that still fails after {@code max-retries}
+ * attempts is counted as lost. Together with the buffer depth and its high-water mark, these
+ * counts are reported by {@link #getStatistics()}, so a gap in the trail is always visible. On
+ * shutdown the writer drains the buffer before it stops.
+ */
+@Service
+public class AuditLogService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+    
+    private static final String INSERT =
+            "INSERT INTO audit_log (occurred_at, user_id, user_email, action, target, status, client_ip) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    @Value("${catalog.audit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+    
+    @Value("${catalog.audit.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${catalog.audit.idle-ms:200}")
+    private long idleMillis;
+    
+    @Value("${catalog.audit.max-retries:3}")
+    private int maxRetries;
+    
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private RingBuffer<AuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    // Only written by the writer thread
+    private volatile long written;
+    private volatile long lost;
+    private volatile long batches;
+    private volatile long failedWrites;
+    private volatile long lastBatchSize;
+    private volatile long lastBatchMillis;
+    private volatile Instant lastWrite;
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new RingBuffer<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    
+    /**
+     * Queues an event for writing; never blocks. Drops and counts it if the buffer is full.
+     */
+    public void record(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        captured.incrementAndGet();
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int depth = buffer.size();
+        if (depth > highWaterMark.get()) {
+            highWaterMark.accumulateAndGet(depth, Math::max);
+        }
+        // The writer sleeps while the buffer is nearly empty; a full batch is worth waking it for
+        if (depth >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+    
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleMillis));
+                }
+                continue;
+            }
+            write(batch);
+        }
+        logger.info("Audit writer stopped: {} events written, {} dropped, {} lost", written, dropped.get(), lost);
+    }
+    
+    private void write(List<AuditEvent> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (AuditEvent event : batch) {
+            rows.add(new Object[] { Timestamp.valueOf(event.getOccurredAt()), event.getUserId(), event.getUserEmail(),
+                    event.getAction(), event.getTarget(), event.getStatus(), event.getClientIp() });
+        }
+        
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            long start = System.nanoTime();
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, rows));
+                written += rows.size();
+                batches++;
+                lastBatchSize = rows.size();
+                lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                lastWrite = Instant.now();
+                return;
+            } catch (Exception e) {
+                failedWrites++;
+                logger.warn("Error writing {} audit events (attempt {} of {})", rows.size(), attempt, maxRetries, e);
+                if (attempt < maxRetries && running) {
+                    // New events pile up in the buffer meanwhile, and are dropped once it is full
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleMillis * attempt));
+                }
+            }
+        }
+        lost += rows.size();
+        logger.error("Lost {} audit events after {} failed attempts", rows.size(), maxRetries);
+    }
+    
+    /**
+     * The most recent events, newest first, optionally only those of one user.
+     */
+    public List<AuditEvent> getRecentEvents(Long userId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return userId != null
+                ? auditEventRepository.findRecentByUserId(userId, page)
+                : auditEventRepository.findRecent(page);
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        if (buffer != null) {
+            statistics.put("bufferCapacity", buffer.capacity());
+            statistics.put("bufferDepth", buffer.size());
+        }
+        statistics.put("highWaterMark", highWaterMark.get());
+        statistics.put("captured", captured.get());
+        statistics.put("written", written);
+        // Rejected because the buffer was full
+        statistics.put("dropped", dropped.get());
+        // Drained, but every write attempt failed
+        statistics.put("lost", lost);
+        statistics.put("batches", batches);
+        statistics.put("failedWrites", failedWrites);
+        statistics.put("averageBatchSize", batches == 0 ? 0.0 : (double) written / batches);
+        statistics.put("lastBatchSize", lastBatchSize);
+        statistics.put("lastBatchMillis", lastBatchMillis);
+        statistics.put("lastWrite", lastWrite != null ? lastWrite.toString() : null);
+        return statistics;
+    }
+}
@@ -0,0 +1,84 @@
+package com.catalog.service;
+
+import com.catalog.entity.CatalogChange;
+import com.catalog.repository.CatalogChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends product writes to the {@code catalog_changes} log and reads them back in id (commit)
+ * order for the change feed, so a client that already holds the catalog only has to fetch what
+ * changed since its cursor.
+ * <p>
+ * Entries are written in the same transaction as the change they describe. Ids are handed out
+ * when a row is inserted, not when its transaction commits, so an entry with a lower id can become
+ * visible after one with a higher id. Reads therefore stop at entries younger than
+ * {@code catalog.changes.settle-ms}, which gives transactions that long to commit before a cursor
+ * can move past them.
+ */
+@Service
+public class CatalogChangeLogService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeLogService.class);
+    
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+    
+    @Value("${catalog.changes.settle-ms:5000}")
+    private long settleMillis;
+    
+    @Value("${catalog.changes.retention-days:30}")
+    private int retentionDays;
+    
+    /**
+     * Records a write to a product, or to one of its images, in the caller's transaction.
+     */
+    @Transactional
+    public void record(String entityType, Long entityId, Long productId, CatalogChange.Operation operation) {
+        catalogChangeRepository.save(new CatalogChange(productId, entityType, entityId, operation));
+    }
+    
+    /**
+     * Up to {@code limit} settled entries after the {@code since} cursor, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<CatalogChange> getChangesSince(long since, int limit) {
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(settleMillis * 1_000_000);
+        return catalogChangeRepository.findSettledSince(since, settledBefore, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Whether entries after {@code since} may already have been purged, in which case the client
+     * has to start over from a full listing.
+     */
+    @Transactional(readOnly = true)
+    public boolean isExpired(long since) {
+        if (since <= 0) {
+            return false;
+        }
+        Long oldest = catalogChangeRepository.findMinId();
+        return oldest != null && since < oldest - 1;
+    }
+    
+    // Purge entries past the retention period once a day
+    @Scheduled(cron = "${catalog.changes.purge-cron:0 30 3 * * *}")
+    public void purgeExpiredChanges() {
+        try {
+            int purged = catalogChangeRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                logger.info("Purged {} catalog change log entries older than {} days", purged, retentionDays);
+            }
+        } catch (Exception e) {
+            logger.error("Error purging the catalog change log", e);
+        }
+    }
+}
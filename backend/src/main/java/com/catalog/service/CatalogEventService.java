@@ -0,0 +1,255 @@
+package com.catalog.service;
+
+import com.catalog.event.CatalogChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes catalog changes to subscribed browsers as server-sent events. Subscriptions are async
+ * servlet requests: once {@link #subscribe()} returns, an idle subscriber holds a connection but no
+ * request thread. Events are serialized once and put into each subscriber's bounded queue, so a
+ * write never waits on subscriber I/O. A pool of {@code sender-threads} drains the queues, one
+ * thread per subscriber at a time, so each stream stays in version order and a slow client only
+ * holds up its own queue. A subscriber whose queue fills up ({@code queue-capacity} events) is
+ * closed; its client reconnects and can tell from the version event that it missed something. A
+ * write to a client that stopped reading altogether ends at the connector's connection timeout.
+ * <p>
+ * Each change is sent as a {@code catalog-changed} event with the entity type, id and new catalog
+ * version (also the event id). A new subscription first gets a {@code catalog-version} event with
+ * the current version, so a reconnecting client can tell whether it missed anything. A comment
+ * line every {@code heartbeat-ms} keeps proxies from closing idle streams and finds dead clients.
+ */
+@Service
+public class CatalogEventService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogEventService.class);
+    
+    public static final String CHANGED_EVENT = "catalog-changed";
+    public static final String VERSION_EVENT = "catalog-version";
+    
+    @Value("${catalog.events.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    // Clients reconnect on their own when a stream times out
+    @Value("${catalog.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+    
+    // Above the 1000 events a single grid PATCH can publish at once
+    @Value("${catalog.events.queue-capacity:1024}")
+    private int queueCapacity;
+    
+    @Value("${catalog.events.sender-threads:4}")
+    private int senderThreads;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    
+    private ExecutorService sender;
+    
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder rejectedSubscriptions = new LongAdder();
+    private final LongAdder droppedSubscribers = new LongAdder();
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * A new event stream, or {@code null} when {@code max-subscribers} streams are already open.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            rejectedSubscriptions.increment();
+            return null;
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.put(emitter, subscriber);
+        
+        long version = catalogVersionService.getVersion();
+        subscriber.enqueue(SseEmitter.event()
+                .id(String.valueOf(version))
+                .name(VERSION_EVENT)
+                .data("{\"version\":" + version + "}", MediaType.APPLICATION_JSON)
+                .build());
+        return emitter;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("entityType", event.getEntityType());
+        data.put("entityId", event.getEntityId());
+        data.put("version", event.getVersion());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing catalog change event", e);
+            return;
+        }
+        
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+                .id(String.valueOf(event.getVersion()))
+                .name(CHANGED_EVENT)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+        broadcast(message);
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("keep-alive").build());
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("subscribers", subscribers.size());
+        statistics.put("maxSubscribers", maxSubscribers);
+        statistics.put("eventsSent", eventsSent.sum());
+        statistics.put("rejectedSubscriptions", rejectedSubscriptions.sum());
+        // Closed because their queue filled up
+        statistics.put("droppedSubscribers", droppedSubscribers.sum());
+        return statistics;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+    
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.enqueue(message);
+        }
+    }
+    
+    /**
+     * One open stream and the events not yet written to it. Any thread may add to the queue; only one
+     * sender thread at a time takes from it.
+     */
+    private class Subscriber implements Runnable {
+        
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean fellBehind;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            // Linked, so an idle subscriber costs no more than its backlog; the messages are shared
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+        
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                // Fell behind. The stream is completed by its sender thread: completing it here would
+                // wait for a write that may be stuck on the slow client
+                droppedSubscribers.increment();
+                logger.debug("Closing catalog event subscriber that fell {} events behind", queueCapacity);
+                fellBehind = true;
+                close();
+            }
+            schedule();
+        }
+        
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Catalog event sender is shut down; dropping event");
+                }
+            }
+        }
+        
+        @Override
+        public void run() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+                while (!closed && (message = queue.poll()) != null) {
+                    send(message);
+                }
+                if (closed) {
+                    // After a failed write the container ends the request itself
+                    if (fellBehind) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                scheduled.set(false);
+                // An event queued after the last poll but before the flag was cleared would not be
+                // scheduled by its producer
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+        
+        private void send(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            try {
+                emitter.send(message);
+                eventsSent.increment();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container completes the request
+                logger.debug("Dropping catalog event subscriber: {}", e.getMessage());
+                close();
+            }
+        }
+        
+        private void close() {
+            closed = true;
+            subscribers.remove(emitter);
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.catalog.service;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.entity.Product;
+import com.catalog.event.CatalogChangedEvent;
+import com.catalog.mapper.ProductMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the public product listing, in full and per category, as gzipped JSON in memory, so
+ * unfiltered listing requests are answered without touching the database or Jackson.
+ * <p>
+ * A snapshot is built in the background from the same {@link ProductMapper} output the listing
+ * endpoint returns, and replaces the previous one in a single reference swap. The first one is
+ * built on first use; after that it is rebuilt after every {@link CatalogChangedEvent} and every
+ * {@code refresh-ms}, which also picks up changes made outside this instance. A snapshot is only
+ * handed out while no change has happened since it was built; in between, callers fall back to
+ * querying. Each build also rewrites the {@link MappedCatalogService} file from the same listing.
+ */
+@Service
+public class CatalogSnapshotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+    
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean enabled;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductMapper productMapper;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MappedCatalogService mappedCatalogService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+    
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    
+    /**
+     * Returns the listing of all products ({@code category} {@code null} or empty) or of one
+     * category, or {@code null} when there is no up-to-date snapshot for it.
+     */
+    public Listing getListing(String category) {
+        if (!enabled) {
+            return null;
+        }
+        Snapshot snapshot = current.get();
+        if (snapshot == null || snapshot.version != catalogVersionService.getVersion()) {
+            requestRebuild();
+            return null;
+        }
+        
+        Listing listing = category == null || category.isEmpty() ? snapshot.all : snapshot.byCategory.get(category);
+        if (listing != null) {
+            served.incrementAndGet();
+        }
+        return listing;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-ms:60000}",
+               initialDelayString = "${catalog.snapshot.refresh-ms:60000}")
+    public void refresh() {
+        requestRebuild();
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Snapshot snapshot = current.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("builds", builds.get());
+        statistics.put("served", served.get());
+        if (snapshot != null) {
+            statistics.put("version", snapshot.version);
+            statistics.put("current", snapshot.version == catalogVersionService.getVersion());
+            statistics.put("builtAt", snapshot.builtAt.toString());
+            statistics.put("categories", snapshot.byCategory.size());
+            statistics.put("products", snapshot.products);
+            statistics.put("gzippedBytes", snapshot.gzippedBytes);
+        }
+        return statistics;
+    }
+    
+    private void requestRebuild() {
+        if (!enabled || !rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            // The next change or scheduled refresh tries again
+            rebuildQueued.set(false);
+            logger.warn("Catalog snapshot rebuild rejected: executor is saturated");
+        }
+    }
+    
+    private synchronized void rebuild() {
+        // Changes arriving from here on queue another rebuild
+        rebuildQueued.set(false);
+        long version = catalogVersionService.getVersion();
+        try {
+            // Not read-only: a replica could still be behind the write that triggered this rebuild,
+            // and the snapshot would keep serving the old data under the new version
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            Snapshot snapshot = transaction.execute(status -> build(version));
+            current.set(snapshot);
+            builds.incrementAndGet();
+            logger.info("Built catalog snapshot {}: {} products in {} categories, {} bytes gzipped",
+                    version, snapshot.products, snapshot.byCategory.size(), snapshot.gzippedBytes);
+        } catch (Exception e) {
+            logger.error("Error building catalog snapshot", e);
+        }
+    }
+    
+    private Snapshot build(long version) {
+        List<Product> products = productService.getAllProducts();
+        // Built off request threads, so no admin fields are included
+        List<ProductDto> dtos = productMapper.toDtoList(products, false);
+        
+        Map<String, List<ProductDto>> dtosByCategory = new HashMap<>();
+        for (ProductDto dto : dtos) {
+            if (dto.getCategory() != null) {
+                dtosByCategory.computeIfAbsent(dto.getCategory(), category -> new ArrayList<>()).add(dto);
+            }
+        }
+        
+        // Weak, since the same listing is sent gzipped or not
+        String etag = "W/\"" + Long.toHexString(System.currentTimeMillis()) + "-" + version + "\"";
+        Listing all = serialize(dtos, etag);
+        long gzippedBytes = all.getGzippedJson().length;
+        
+        Map<String, Listing> byCategory = new HashMap<>();
+        for (Map.Entry<String, List<ProductDto>> entry : dtosByCategory.entrySet()) {
+            Listing listing = serialize(entry.getValue(), etag);
+            byCategory.put(entry.getKey(), listing);
+            gzippedBytes += listing.getGzippedJson().length;
+        }
+        
+        // The same listing, in binary for filtered and sparse listings and for the next startup
+        mappedCatalogService.write(version, dtos);
+        
+        return new Snapshot(version, Instant.now(), all, Collections.unmodifiableMap(byCategory),
+                dtos.size(), gzippedBytes);
+    }
+    
+    private Listing serialize(List<ProductDto> dtos, String etag) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, dtos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long[] productIds = dtos.stream().mapToLong(ProductDto::getId).toArray();
+        return new Listing(bytes.toByteArray(), etag, productIds);
+    }
+    
+    /**
+     * One serialized listing. The bytes and ids are shared and must not be modified.
+     */
+    public static class Listing {
+        
+        private final byte[] gzippedJson;
+        private final String etag;
+        // In listing order, for impression counting without parsing the JSON
+        private final long[] productIds;
+        
+        Listing(byte[] gzippedJson, String etag, long[] productIds) {
+            this.gzippedJson = gzippedJson;
+            this.etag = etag;
+            this.productIds = productIds;
+        }
+        
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+        
+        public long[] getProductIds() {
+            return productIds;
+        }
+    }
+    
+    private static class Snapshot {
+        
+        private final long version;
+        private final Instant builtAt;
+        private final Listing all;
+        private final Map<String, Listing> byCategory;
+        private final int products;
+        private final long gzippedBytes;
+        
+        Snapshot(long version, Instant builtAt, Listing all, Map<String, Listing> byCategory,
+                 int products, long gzippedBytes) {
+            this.version = version;
+            this.builtAt = builtAt;
+            this.all = all;
+            this.byCategory = byCategory;
+            this.products = products;
+            this.gzippedBytes = gzippedBytes;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.catalog.service;
+
+import com.catalog.event.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a process-wide catalog version that moves forward on every catalog write, and tells
+ * interested components through a {@link CatalogChangedEvent}. Writes inside a transaction are
+ * announced once it commits, so nothing reacts to changes that are rolled back or not yet visible.
+ */
+@Service
+public class CatalogVersionService {
+    
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_IMAGE = "productImage";
+    public static final String CATEGORY = "category";
+    public static final String FILTER = "filter";
+    public static final String FILTER_VALUE = "filterValue";
+    // Changes that are not about a single entity, such as bulk loads
+    public static final String CATALOG = "catalog";
+    
+    private final AtomicLong version = new AtomicLong();
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    public long getVersion() {
+        return version.get();
+    }
+    
+    public void catalogChanged(String entityType, Long entityId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(entityType, entityId);
+                }
+            });
+        } else {
+            publish(entityType, entityId);
+        }
+    }
+    
+    private void publish(String entityType, Long entityId) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(this, entityType, entityId, version.incrementAndGet()));
+    }
+}
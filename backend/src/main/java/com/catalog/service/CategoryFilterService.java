@@ -25,10 +25,14 @@ public class CategoryFilterService {
     @Autowired
     private FilterRepository filterRepository;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
     public List<CategoryFilter> getCategoryFilters(Long categoryId) {
-        return categoryFilterRepository.findByCategoryId(categoryId);
+        return categoryFilterRepository.findByCategoryIdWithFilterValues(categoryId);
     }
     
+    @Transactional(readOnly = true)
     public List<Filter> getActiveFiltersByCategoryName(String categoryName) {
         return categoryFilterRepository.findActiveFiltersByCategoryName(categoryName);
     }
@@ -51,6 +55,7 @@ public class CategoryFilterService {
                 }
             }
         }
+        catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, categoryId);
     }
     
     public boolean addFilterToCategory(Long categoryId, Long filterId) {
@@ -64,6 +69,7 @@ public class CategoryFilterService {
         if (categoryOpt.isPresent() && filterOpt.isPresent()) {
             CategoryFilter categoryFilter = new CategoryFilter(categoryOpt.get(), filterOpt.get());
             categoryFilterRepository.save(categoryFilter);
+            catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, categoryId);
             return true;
         }
         
@@ -76,6 +82,7 @@ public class CategoryFilterService {
         for (CategoryFilter cf : categoryFilters) {
             if (cf.getFilter().getId().equals(filterId)) {
                 categoryFilterRepository.delete(cf);
+                catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, categoryId);
                 return true;
             }
         }
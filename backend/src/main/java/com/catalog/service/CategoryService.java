@@ -4,6 +4,7 @@ import com.catalog.entity.Category;
 import com.catalog.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,10 +15,14 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
     public List<Category> getAllCategories() {
         return categoryRepository.findAllOrderedCategories();
     }
     
+    @Transactional(readOnly = true)
     public List<Category> getActiveCategories() {
         return categoryRepository.findAllActiveCategories();
     }
@@ -27,11 +32,16 @@ public class CategoryService {
     }
     
     public Optional<Category> getCategoryByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
         return categoryRepository.findByName(name);
     }
     
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, savedCategory.getId());
+        return savedCategory;
     }
     
     public Category updateCategory(Long id, Category categoryDetails) {
@@ -42,7 +52,9 @@ public class CategoryService {
             category.setDescription(categoryDetails.getDescription());
             category.setDisplayOrder(categoryDetails.getDisplayOrder());
             category.setActive(categoryDetails.getActive());
-            return categoryRepository.save(category);
+            Category savedCategory = categoryRepository.save(category);
+            catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, id);
+            return savedCategory;
         }
         return null;
     }
@@ -50,6 +62,7 @@ public class CategoryService {
     public boolean deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            catalogVersionService.catalogChanged(CatalogVersionService.CATEGORY, id);
             return true;
         }
         return false;
@@ -59,6 +72,7 @@ public class CategoryService {
         return categoryRepository.existsByName(name);
     }
     
+    @Transactional(readOnly = true)
     public List<String> getCategoryNames() {
         return getActiveCategories().stream()
                 .map(Category::getName)
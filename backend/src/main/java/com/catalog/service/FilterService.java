@@ -8,9 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class FilterService {
@@ -21,28 +23,44 @@ public class FilterService {
     @Autowired
     private FilterValueRepository filterValueRepository;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
     public List<Filter> getAllFilters() {
         return filterRepository.findAllOrderedFilters();
     }
     
+    @Transactional(readOnly = true)
     public List<Filter> getActiveFilters() {
         return filterRepository.findAllActiveFilters();
     }
     
+    public List<Filter> getAllFiltersWithValues() {
+        return filterRepository.findAllOrderedFiltersWithValues();
+    }
+    
+    @Transactional(readOnly = true)
     public List<Filter> getActiveFiltersWithValues() {
-        List<Filter> filters = filterRepository.findAllActiveFilters();
+        return groupByFilter(filterValueRepository.findAllActiveWithFilter());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Filter> getActiveFiltersWithValuesByCategoryName(String categoryName) {
+        return groupByFilter(filterValueRepository.findAllActiveWithFilterByCategoryName(categoryName));
+    }
+    
+    /**
+     * Attaches active values to their filters in query order. Filters without any active
+     * value never appear in the rows, so they are left out just as before.
+     */
+    private List<Filter> groupByFilter(List<FilterValue> activeValues) {
+        Map<Filter, List<FilterValue>> valuesByFilter = new LinkedHashMap<>();
+        for (FilterValue value : activeValues) {
+            valuesByFilter.computeIfAbsent(value.getFilter(), filter -> new ArrayList<>()).add(value);
+        }
         
-        // Filter out filters that don't have any active values
-        return filters.stream()
-                .filter(filter -> {
-                    List<FilterValue> activeValues = filterValueRepository.findByFilterIdAndActiveOrderByDisplayOrderAsc(filter.getId(), true);
-                    if (!activeValues.isEmpty()) {
-                        filter.setFilterValues(activeValues);
-                        return true;
-                    }
-                    return false;
-                })
-                .collect(Collectors.toList());
+        valuesByFilter.forEach(Filter::setFilterValues);
+        return new ArrayList<>(valuesByFilter.keySet());
     }
     
     public Optional<Filter> getFilterById(Long id) {
@@ -54,7 +72,9 @@ public class FilterService {
     }
     
     public Filter saveFilter(Filter filter) {
-        return filterRepository.save(filter);
+        Filter savedFilter = filterRepository.save(filter);
+        catalogVersionService.catalogChanged(CatalogVersionService.FILTER, savedFilter.getId());
+        return savedFilter;
     }
     
     public Filter updateFilter(Long id, Filter filterDetails) {
@@ -66,7 +86,9 @@ public class FilterService {
             filter.setDescription(filterDetails.getDescription());
             filter.setDisplayOrder(filterDetails.getDisplayOrder());
             filter.setActive(filterDetails.getActive());
-            return filterRepository.save(filter);
+            Filter savedFilter = filterRepository.save(filter);
+            catalogVersionService.catalogChanged(CatalogVersionService.FILTER, id);
+            return savedFilter;
         }
         return null;
     }
@@ -80,6 +102,7 @@ public class FilterService {
             
             // Then delete the filter
             filterRepository.deleteById(id);
+            catalogVersionService.catalogChanged(CatalogVersionService.FILTER, id);
             return true;
         }
         return false;
@@ -103,7 +126,9 @@ public class FilterService {
     }
     
     public FilterValue saveFilterValue(FilterValue filterValue) {
-        return filterValueRepository.save(filterValue);
+        FilterValue savedFilterValue = filterValueRepository.save(filterValue);
+        catalogVersionService.catalogChanged(CatalogVersionService.FILTER_VALUE, savedFilterValue.getId());
+        return savedFilterValue;
     }
     
     public FilterValue updateFilterValue(Long id, FilterValue filterValueDetails) {
@@ -114,7 +139,9 @@ public class FilterService {
             filterValue.setDisplayValue(filterValueDetails.getDisplayValue());
             filterValue.setDisplayOrder(filterValueDetails.getDisplayOrder());
             filterValue.setActive(filterValueDetails.getActive());
-            return filterValueRepository.save(filterValue);
+            FilterValue savedFilterValue = filterValueRepository.save(filterValue);
+            catalogVersionService.catalogChanged(CatalogVersionService.FILTER_VALUE, id);
+            return savedFilterValue;
         }
         return null;
     }
@@ -122,6 +149,7 @@ public class FilterService {
     public boolean deleteFilterValue(Long id) {
         if (filterValueRepository.existsById(id)) {
             filterValueRepository.deleteById(id);
+            catalogVersionService.catalogChanged(CatalogVersionService.FILTER_VALUE, id);
             return true;
         }
         return false;
@@ -0,0 +1,533 @@
+package com.catalog.service;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.dto.ProductFields;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary, memory-mapped copy of the public product listing: one fixed-size record per product
+ * (id, price, category, stock, timestamps and references into a string area holding names,
+ * descriptions and primary image URLs) plus each product's filter assignments. Products are
+ * decoded straight from the mapped file when a listing asks for them, so the catalog itself
+ * lives in the page cache rather than on the Java heap. Image lists are not included.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header        magic, format, record size, built at, catalog version, counts, section offsets
+ * dictionaries  category names, filter names, filter values (loaded onto the heap; they are small)
+ * records       RECORD_SIZE bytes per product, in listing order
+ * assignments   (filter index, value index) int pairs, grouped by product
+ * strings       int length + UTF-8 bytes, in 1 GB chunks that no string crosses
+ * </pre>
+ * The string area is chunked because a single {@link MappedByteBuffer} cannot exceed 2 GB.
+ * Instances are immutable and safe for concurrent use; only absolute buffer reads are used.
+ */
+public final class MappedCatalogFile {
+    
+    private static final long MAGIC = 0x434154534E415031L; // "CATSNAP1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 128;
+    
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    
+    // Record layout
+    private static final int RECORD_SIZE = 88;
+    private static final int ID = 0;
+    private static final int NAME = 8;
+    private static final int DESCRIPTION = 16;
+    private static final int PRIMARY_IMAGE_URL = 24;
+    private static final int PRICE_UNSCALED = 32;
+    private static final int CREATED_SECONDS = 40;
+    private static final int UPDATED_SECONDS = 48;
+    private static final int ASSIGNMENT_START = 56;
+    private static final int ASSIGNMENT_COUNT = 60;
+    private static final int PRICE_SCALE = 64;
+    private static final int CATEGORY = 68;
+    private static final int CREATED_NANOS = 72;
+    private static final int UPDATED_NANOS = 76;
+    private static final int IN_STOCK = 80;
+    
+    // Marks absent values: string references, indexes, nanos and stock use -1
+    private static final long NO_STRING = -1;
+    private static final int NO_SCALE = Integer.MIN_VALUE;
+    
+    private final Path path;
+    private final long size;
+    private final Instant builtAt;
+    private final long catalogVersion;
+    private final int productCount;
+    private final List<String> categories;
+    private final List<String> filterNames;
+    private final List<String> filterValues;
+    private final Map<String, Integer> categoryIndex;
+    private final Map<String, Integer> filterIndex;
+    private final Map<String, Integer> valueIndex;
+    private final ByteBuffer records;
+    private final ByteBuffer assignments;
+    private final ByteBuffer[] strings;
+    
+    private MappedCatalogFile(Path path, long size, Instant builtAt, long catalogVersion, int productCount,
+                              List<String> categories, List<String> filterNames, List<String> filterValues,
+                              ByteBuffer records, ByteBuffer assignments, ByteBuffer[] strings) {
+        this.path = path;
+        this.size = size;
+        this.builtAt = builtAt;
+        this.catalogVersion = catalogVersion;
+        this.productCount = productCount;
+        this.categories = categories;
+        this.filterNames = filterNames;
+        this.filterValues = filterValues;
+        this.categoryIndex = index(categories);
+        this.filterIndex = index(filterNames);
+        this.valueIndex = index(filterValues);
+        this.records = records;
+        this.assignments = assignments;
+        this.strings = strings;
+    }
+    
+    /**
+     * Writes {@code products} (as mapped for the public listing, with filter values and primary
+     * image URLs) to {@code path}, replacing any previous file atomically, and maps the result.
+     *
+     * @param filterNames every existing filter, so that filters no product uses still count as known
+     */
+    public static MappedCatalogFile write(Path path, List<ProductDto> products, Collection<String> filterNames,
+                                          long catalogVersion) throws IOException {
+        List<String> categories = new ArrayList<>();
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        List<String> filters = new ArrayList<>(filterNames);
+        Map<String, Integer> filterIndex = index(filters);
+        List<String> values = new ArrayList<>();
+        Map<String, Integer> valueIndex = new HashMap<>();
+        long assignmentCount = 0;
+        
+        for (ProductDto product : products) {
+            if (product.getCategory() != null && !categoryIndex.containsKey(product.getCategory())) {
+                categoryIndex.put(product.getCategory(), categories.size());
+                categories.add(product.getCategory());
+            }
+            if (product.getFilterValues() != null) {
+                for (Map.Entry<String, List<String>> entry : product.getFilterValues().entrySet()) {
+                    if (!filterIndex.containsKey(entry.getKey())) {
+                        filterIndex.put(entry.getKey(), filters.size());
+                        filters.add(entry.getKey());
+                    }
+                    for (String value : entry.getValue()) {
+                        if (!valueIndex.containsKey(value)) {
+                            valueIndex.put(value, values.size());
+                            values.add(value);
+                        }
+                        assignmentCount++;
+                    }
+                }
+            }
+        }
+        if (assignmentCount * 8 > Integer.MAX_VALUE || (long) products.size() * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for a mapped snapshot: " + products.size() + " products");
+        }
+        
+        byte[] dictionaries = dictionaries(categories, filters, values);
+        long recordsOffset = HEADER_SIZE + dictionaries.length;
+        long assignmentsOffset = recordsOffset + (long) products.size() * RECORD_SIZE;
+        long stringsOffset = assignmentsOffset + assignmentCount * 8;
+        
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long builtAt = System.currentTimeMillis();
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            // The string area length is only known once records are laid out; the header is
+            // rewritten below
+            out.write(new byte[HEADER_SIZE]);
+            out.write(dictionaries);
+            
+            StringArea area = new StringArea();
+            int assignmentStart = 0;
+            for (ProductDto product : products) {
+                int assignmentsOfProduct = 0;
+                if (product.getFilterValues() != null) {
+                    for (List<String> filterValuesOfProduct : product.getFilterValues().values()) {
+                        assignmentsOfProduct += filterValuesOfProduct.size();
+                    }
+                }
+                out.writeLong(product.getId());
+                out.writeLong(area.allocate(product.getName()));
+                out.writeLong(area.allocate(product.getDescription()));
+                out.writeLong(area.allocate(product.getPrimaryImageUrl()));
+                BigDecimal price = product.getPrice();
+                out.writeLong(price != null ? price.unscaledValue().longValueExact() : 0);
+                out.writeLong(seconds(product.getCreatedAt()));
+                out.writeLong(seconds(product.getUpdatedAt()));
+                out.writeInt(assignmentStart);
+                out.writeInt(assignmentsOfProduct);
+                out.writeInt(price != null ? price.scale() : NO_SCALE);
+                out.writeInt(product.getCategory() != null ? categoryIndex.get(product.getCategory()) : -1);
+                out.writeInt(nanos(product.getCreatedAt()));
+                out.writeInt(nanos(product.getUpdatedAt()));
+                out.writeInt(product.getInStock() == null ? -1 : product.getInStock() ? 1 : 0);
+                out.writeInt(0);
+                assignmentStart += assignmentsOfProduct;
+            }
+            
+            for (ProductDto product : products) {
+                if (product.getFilterValues() != null) {
+                    for (Map.Entry<String, List<String>> entry : product.getFilterValues().entrySet()) {
+                        for (String value : entry.getValue()) {
+                            out.writeInt(filterIndex.get(entry.getKey()));
+                            out.writeInt(valueIndex.get(value));
+                        }
+                    }
+                }
+            }
+            
+            // Same allocation order as above, so every string lands at the offset its record holds
+            StringArea written = new StringArea();
+            for (ProductDto product : products) {
+                written.write(out, product.getName());
+                written.write(out, product.getDescription());
+                written.write(out, product.getPrimaryImageUrl());
+            }
+            out.flush();
+            if (written.length != area.length) {
+                throw new IllegalStateException("String area layout mismatch");
+            }
+            
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putLong(MAGIC)
+                        .putInt(FORMAT)
+                        .putInt(RECORD_SIZE)
+                        .putLong(builtAt)
+                        .putLong(catalogVersion)
+                        .putInt(products.size())
+                        .putInt((int) assignmentCount)
+                        .putLong(HEADER_SIZE)
+                        .putLong(recordsOffset)
+                        .putLong(assignmentsOffset)
+                        .putLong(stringsOffset)
+                        .putLong(area.length);
+                header.rewind();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+        }
+        
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+    
+    /**
+     * Maps a file written by {@link #write}.
+     *
+     * @throws IOException when the file cannot be read or is not a snapshot of this format
+     */
+    public static MappedCatalogFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT || header.getInt(12) != RECORD_SIZE) {
+                throw new IOException("Not a catalog snapshot of format " + FORMAT + ": " + path);
+            }
+            Instant builtAt = Instant.ofEpochMilli(header.getLong(16));
+            long catalogVersion = header.getLong(24);
+            int productCount = header.getInt(32);
+            int assignmentCount = header.getInt(36);
+            long dictionariesOffset = header.getLong(40);
+            long recordsOffset = header.getLong(48);
+            long assignmentsOffset = header.getLong(56);
+            long stringsOffset = header.getLong(64);
+            long stringsLength = header.getLong(72);
+            if (stringsOffset + stringsLength != size) {
+                throw new IOException("Truncated catalog snapshot: " + path);
+            }
+            
+            ByteBuffer dictionaries = channel.map(FileChannel.MapMode.READ_ONLY, dictionariesOffset,
+                    recordsOffset - dictionariesOffset);
+            List<String> categories = readDictionary(dictionaries);
+            List<String> filterNames = readDictionary(dictionaries);
+            List<String> filterValues = readDictionary(dictionaries);
+            
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, recordsOffset,
+                    (long) productCount * RECORD_SIZE);
+            ByteBuffer assignments = channel.map(FileChannel.MapMode.READ_ONLY, assignmentsOffset,
+                    (long) assignmentCount * 8);
+            ByteBuffer[] strings = new ByteBuffer[(int) ((stringsLength + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < strings.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                strings[i] = channel.map(FileChannel.MapMode.READ_ONLY, stringsOffset + start,
+                        Math.min(CHUNK_SIZE, stringsLength - start));
+            }
+            
+            // Mappings stay valid after the channel is closed
+            return new MappedCatalogFile(path, size, builtAt, catalogVersion, productCount,
+                    categories, filterNames, filterValues, records, assignments, strings);
+        }
+    }
+    
+    /**
+     * The products of {@code category} ({@code null} for all) that match {@code filters}, in
+     * listing order, with the same semantics as the database-backed listing: a product matches when
+     * it has one of the listed values for every named filter, and unknown filter names are ignored
+     * unless no named filter is known, in which case nothing matches. Only the requested fields are
+     * decoded; price and creation time always are, for sorting.
+     */
+    public List<ProductDto> find(String category, Map<String, List<String>> filters, ProductFields fields) {
+        int categoryFilter = -1;
+        if (category != null) {
+            Integer index = categoryIndex.get(category);
+            if (index == null) {
+                return new ArrayList<>();
+            }
+            categoryFilter = index;
+        }
+        
+        // Requested values per known filter, as value indexes; a null entry matches nothing
+        List<int[]> requiredFilters = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : filters.entrySet()) {
+            Integer filter = filterIndex.get(entry.getKey());
+            if (filter != null) {
+                List<Integer> accepted = new ArrayList<>();
+                for (String value : entry.getValue()) {
+                    Integer index = valueIndex.get(value);
+                    if (index != null) {
+                        accepted.add(index);
+                    }
+                }
+                int[] required = new int[accepted.size() + 1];
+                required[0] = filter;
+                for (int i = 0; i < accepted.size(); i++) {
+                    required[i + 1] = accepted.get(i);
+                }
+                requiredFilters.add(required);
+            }
+        }
+        if (!filters.isEmpty() && requiredFilters.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<ProductDto> result = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            int record = i * RECORD_SIZE;
+            if (categoryFilter >= 0 && records.getInt(record + CATEGORY) != categoryFilter) {
+                continue;
+            }
+            if (!requiredFilters.isEmpty() && !matches(record, requiredFilters)) {
+                continue;
+            }
+            result.add(toDto(record, fields));
+        }
+        return result;
+    }
+    
+    private boolean matches(int record, List<int[]> requiredFilters) {
+        int start = records.getInt(record + ASSIGNMENT_START);
+        int count = records.getInt(record + ASSIGNMENT_COUNT);
+        for (int[] required : requiredFilters) {
+            boolean found = false;
+            for (int a = start; a < start + count && !found; a++) {
+                int position = a * 8;
+                if (assignments.getInt(position) == required[0]) {
+                    int value = assignments.getInt(position + 4);
+                    for (int v = 1; v < required.length && !found; v++) {
+                        found = required[v] == value;
+                    }
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private ProductDto toDto(int record, ProductFields fields) {
+        int scale = records.getInt(record + PRICE_SCALE);
+        BigDecimal price = scale == NO_SCALE ? null
+                : new BigDecimal(BigInteger.valueOf(records.getLong(record + PRICE_UNSCALED)), scale);
+        int category = records.getInt(record + CATEGORY);
+        int inStock = records.getInt(record + IN_STOCK);
+        
+        ProductDto dto = new ProductDto(
+            records.getLong(record + ID),
+            fields.includes("name") ? string(records.getLong(record + NAME)) : null,
+            fields.includes(ProductFields.DESCRIPTION) ? string(records.getLong(record + DESCRIPTION)) : null,
+            price,
+            category >= 0 ? categories.get(category) : null,
+            inStock < 0 ? null : inStock == 1,
+            dateTime(records.getLong(record + CREATED_SECONDS), records.getInt(record + CREATED_NANOS)),
+            dateTime(records.getLong(record + UPDATED_SECONDS), records.getInt(record + UPDATED_NANOS))
+        );
+        if (fields.includes(ProductFields.PRIMARY_IMAGE_URL)) {
+            dto.setPrimaryImageUrl(string(records.getLong(record + PRIMARY_IMAGE_URL)));
+        }
+        if (fields.includes(ProductFields.FILTER_VALUES)) {
+            dto.setFilterValues(filterValues(record));
+        }
+        return dto;
+    }
+    
+    private Map<String, List<String>> filterValues(int record) {
+        int start = records.getInt(record + ASSIGNMENT_START);
+        int count = records.getInt(record + ASSIGNMENT_COUNT);
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> result = new HashMap<>();
+        for (int a = start; a < start + count; a++) {
+            int position = a * 8;
+            result.computeIfAbsent(filterNames.get(assignments.getInt(position)), name -> new ArrayList<>())
+                  .add(filterValues.get(assignments.getInt(position + 4)));
+        }
+        return result;
+    }
+    
+    private String string(long reference) {
+        if (reference == NO_STRING) {
+            return null;
+        }
+        ByteBuffer chunk = strings[(int) (reference >>> CHUNK_SHIFT)];
+        int position = (int) (reference & (CHUNK_SIZE - 1));
+        byte[] bytes = new byte[chunk.getInt(position)];
+        chunk.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+    
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+    
+    public int getProductCount() {
+        return productCount;
+    }
+    
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+    
+    private static int nanos(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.getNano() : -1;
+    }
+    
+    private static LocalDateTime dateTime(long seconds, int nanos) {
+        return nanos < 0 ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+    
+    private static Map<String, Integer> index(List<String> names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            index.putIfAbsent(names.get(i), i);
+        }
+        return index;
+    }
+    
+    private static byte[] dictionaries(List<String> categories, List<String> filters, List<String> values)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (List<String> dictionary : List.of(categories, filters, values)) {
+                out.writeInt(dictionary.size());
+                for (String entry : dictionary) {
+                    byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static List<String> readDictionary(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] utf8 = new byte[buffer.getInt()];
+            buffer.get(utf8);
+            entries.add(new String(utf8, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+    
+    /**
+     * Lays out strings in the string area: each takes a four-byte length and its UTF-8 bytes, and
+     * starts over at the next chunk when it would not fit in the current one.
+     */
+    private static class StringArea {
+        
+        private long length;
+        
+        long allocate(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            return place(4 + value.getBytes(StandardCharsets.UTF_8).length);
+        }
+        
+        void write(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            long before = length;
+            long offset = place(4 + utf8.length);
+            for (long padding = offset - before; padding > 0; padding--) {
+                out.write(0);
+            }
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        
+        private long place(int size) {
+            if (size > CHUNK_SIZE) {
+                throw new IllegalArgumentException("String too long for a mapped snapshot: " + size + " bytes");
+            }
+            long offset = length;
+            if ((offset & (CHUNK_SIZE - 1)) + size > CHUNK_SIZE) {
+                offset = (offset + CHUNK_SIZE - 1) & ~(CHUNK_SIZE - 1);
+            }
+            length = offset + size;
+            return offset;
+        }
+    }
+}
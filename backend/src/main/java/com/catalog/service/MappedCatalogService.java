@@ -0,0 +1,176 @@
+package com.catalog.service;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.dto.ProductFields;
+import com.catalog.entity.Filter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Answers public product listings from a {@link MappedCatalogFile} instead of the database: any
+ * category, filter and sort combination, for every field except the image list and without search.
+ * <p>
+ * The file is rewritten by {@link CatalogSnapshotService} whenever it rebuilds its snapshot, and
+ * like that snapshot it is only used while no change has happened since it was written. At
+ * startup the file left by the previous run is mapped, so listings are served right away instead
+ * of from cold caches; that copy may miss changes made while this instance was down, so it is
+ * only used if it is younger than {@code max-age-ms}, and only until the first rebuild replaces it.
+ */
+@Service
+public class MappedCatalogService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MappedCatalogService.class);
+    
+    @Value("${catalog.mapped-snapshot.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.mapped-snapshot.path:snapshots/catalog.bin}")
+    private String path;
+    
+    @Value("${catalog.mapped-snapshot.max-age-ms:86400000}")
+    private long maxAgeMillis;
+    
+    @Autowired
+    private FilterService filterService;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private ProductStatsService productStatsService;
+    
+    private final AtomicReference<Current> current = new AtomicReference<>();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    
+    @PostConstruct
+    public void loadPreviousSnapshot() {
+        Path file = Paths.get(path);
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        try {
+            MappedCatalogFile snapshot = MappedCatalogFile.open(file);
+            Duration age = Duration.between(snapshot.getBuiltAt(), Instant.now());
+            if (age.toMillis() > maxAgeMillis) {
+                logger.info("Ignoring mapped catalog snapshot {}: written {} ago", file, age);
+                return;
+            }
+            current.set(new Current(snapshot, catalogVersionService.getVersion(), true));
+            logger.info("Serving listings from mapped catalog snapshot {} ({} products, written {} ago) until it is rebuilt",
+                    file, snapshot.getProductCount(), age);
+        } catch (Exception e) {
+            logger.warn("Could not load mapped catalog snapshot {}", file, e);
+        }
+    }
+    
+    /**
+     * Replaces the mapped snapshot with {@code products}, the public listing at catalog
+     * {@code version}. Runs in the caller's transaction, which also reads the filter names.
+     */
+    public void write(long version, List<ProductDto> products) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<String> filterNames = filterService.getAllFilters().stream()
+                    .map(Filter::getName)
+                    .collect(Collectors.toList());
+            MappedCatalogFile snapshot = MappedCatalogFile.write(Paths.get(path), products, filterNames, version);
+            // The previous mapping is released by the garbage collector once no reader holds it
+            current.set(new Current(snapshot, version, false));
+            writes.incrementAndGet();
+            logger.info("Wrote mapped catalog snapshot {}: {} products, {} bytes",
+                    snapshot.getPath(), snapshot.getProductCount(), snapshot.getSize());
+        } catch (Exception e) {
+            logger.error("Error writing mapped catalog snapshot", e);
+        }
+    }
+    
+    /**
+     * The public listing for these parameters (as accepted by the listing endpoint, {@code null}
+     * or empty meaning "not given"), or {@code null} when it cannot be served from the mapped
+     * snapshot.
+     */
+    public List<ProductDto> findProducts(String category, Map<String, List<String>> filters, String sort,
+                                         ProductFields fields) {
+        Current snapshot = current.get();
+        if (!enabled || snapshot == null || snapshot.version != catalogVersionService.getVersion()
+                || fields.includes(ProductFields.IMAGES)) {
+            return null;
+        }
+        
+        List<ProductDto> products = snapshot.file.find(category != null && !category.isEmpty() ? category : null,
+                filters, fields);
+        
+        // Same orderings as the database-backed listing
+        if (sort != null) {
+            switch (sort) {
+                case "price_asc":
+                    products.sort(Comparator.comparing(ProductDto::getPrice));
+                    break;
+                case "price_desc":
+                    products.sort(Comparator.comparing(ProductDto::getPrice).reversed());
+                    break;
+                case "latest":
+                    products.sort(Comparator.comparing(ProductDto::getCreatedAt).reversed());
+                    break;
+                case "popular":
+                    products.sort(Comparator.comparingLong(
+                            (ProductDto product) -> productStatsService.getViews(product.getId())).reversed());
+                    break;
+            }
+        }
+        
+        products.replaceAll(fields::apply);
+        served.incrementAndGet();
+        return products;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Current snapshot = current.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("writes", writes.get());
+        statistics.put("served", served.get());
+        if (snapshot != null) {
+            statistics.put("current", snapshot.version == catalogVersionService.getVersion());
+            statistics.put("fromPreviousRun", snapshot.fromPreviousRun);
+            statistics.put("builtAt", snapshot.file.getBuiltAt().toString());
+            statistics.put("products", snapshot.file.getProductCount());
+            statistics.put("bytes", snapshot.file.getSize());
+        }
+        return statistics;
+    }
+    
+    private static class Current {
+        
+        private final MappedCatalogFile file;
+        // Catalog version of this instance the file is valid for
+        private final long version;
+        private final boolean fromPreviousRun;
+        
+        Current(MappedCatalogFile file, long version, boolean fromPreviousRun) {
+            this.file = file;
+            this.version = version;
+            this.fromPreviousRun = fromPreviousRun;
+        }
+    }
+}
@@ -36,6 +36,9 @@ public class PasswordResetService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     @Value("${catalog.password-reset.token-expiry-hours:24}")
     private int tokenExpiryHours;
     
@@ -126,6 +129,9 @@ public class PasswordResetService {
             // Invalidate all other tokens for this user
             tokenRepository.markAllUserTokensAsUsed(user);
             
+            // And end the sessions signed in with the old password
+            refreshTokenService.revokeAll(user.getId());
+            
             // Send confirmation email asynchronously
             sendPasswordResetConfirmationAsync(user.getEmail(), user.getFirstName());
             
@@ -0,0 +1,146 @@
+package com.catalog.service;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.entity.Product;
+import com.catalog.event.CatalogChangedEvent;
+import com.catalog.mapper.ProductMapper;
+import com.catalog.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Public product detail (product, category, filter values and ordered images) with a per-product
+ * DTO cache. An entry is only reused while the product's {@code updatedAt} is unchanged, which
+ * image and filter edits also move, so a hit costs one indexed lookup of that timestamp. Edits made
+ * through this instance additionally evict entries right away, including category and filter
+ * renames that show in the detail without touching the product.
+ * <p>
+ * Such renames empty the whole cache, and for the replica stickiness window after that, misses are
+ * loaded from the primary: a replica may not have the rename yet, and nothing would move the
+ * {@code updatedAt} to replace the stale detail. Entries also expire after {@code ttl-seconds},
+ * which bounds staleness from edits made through other instances.
+ * <p>
+ * Entries never contain admin-only fields; admins read details without the cache.
+ */
+@Service
+public class ProductDetailService {
+    
+    @Value("${catalog.product-detail-cache.max-entries:10000}")
+    private long maxEntries;
+    
+    @Value("${catalog.product-detail-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    @Value("${catalog.replica.sticky-ms:10000}")
+    private long primaryReloadMillis;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductMapper productMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Cache<Long, Entry> cache;
+    private TransactionTemplate replicaTransaction;
+    private TransactionTemplate primaryTransaction;
+    private volatile long lastInvalidateAll;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        replicaTransaction = new TransactionTemplate(transactionManager);
+        replicaTransaction.setReadOnly(true);
+        primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+    
+    public Optional<ProductDto> getProductDetail(Long id) {
+        boolean recentlyInvalidated = System.currentTimeMillis() - lastInvalidateAll < primaryReloadMillis;
+        return (recentlyInvalidated ? primaryTransaction : replicaTransaction).execute(status -> load(id));
+    }
+    
+    private Optional<ProductDto> load(Long id) {
+        List<LocalDateTime> updatedAt = productRepository.findUpdatedAtById(id);
+        if (updatedAt.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        LocalDateTime currentUpdatedAt = updatedAt.get(0);
+        Entry entry = cache.getIfPresent(id);
+        if (entry != null && currentUpdatedAt != null && currentUpdatedAt.equals(entry.updatedAt)) {
+            hits.increment();
+            return Optional.of(entry.dto);
+        }
+        
+        misses.increment();
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        // Product with category, then its filter values and its images: three queries in all
+        ProductDto dto = productMapper.toDto(product.get(), false);
+        if (currentUpdatedAt != null && currentUpdatedAt.equals(product.get().getUpdatedAt())) {
+            cache.put(id, new Entry(currentUpdatedAt, dto));
+        }
+        return Optional.of(dto);
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (CatalogVersionService.PRODUCT.equals(event.getEntityType()) && event.getEntityId() != null) {
+            cache.invalidate(event.getEntityId());
+        } else {
+            // Image events carry the image id, and category or filter renames affect many products
+            lastInvalidateAll = System.currentTimeMillis();
+            cache.invalidateAll();
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("entries", cache.estimatedSize());
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        return statistics;
+    }
+    
+    public void clearStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+    
+    private static class Entry {
+        
+        private final LocalDateTime updatedAt;
+        private final ProductDto dto;
+        
+        Entry(LocalDateTime updatedAt, ProductDto dto) {
+            this.updatedAt = updatedAt;
+            this.dto = dto;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.catalog.service;
 
+import com.catalog.entity.CatalogChange;
 import com.catalog.entity.Product;
 import com.catalog.entity.ProductFilter;
 import com.catalog.entity.Filter;
@@ -7,12 +8,15 @@ import com.catalog.entity.FilterValue;
 import com.catalog.repository.ProductFilterRepository;
 import com.catalog.repository.FilterRepository;
 import com.catalog.repository.FilterValueRepository;
+import com.catalog.repository.ProductRepository;
+import com.catalog.util.SortedLongSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,6 +25,9 @@ public class ProductFilterService {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductFilterService.class);
     
+    // Upper bound for IN (...) lists when loading filter values for many products at once
+    private static final int BATCH_SIZE = 1000;
+    
     @Autowired
     private ProductFilterRepository productFilterRepository;
     
@@ -30,6 +37,18 @@ public class ProductFilterService {
     @Autowired
     private FilterValueRepository filterValueRepository;
     
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogChangeLogService catalogChangeLogService;
+    
+    @Autowired
+    private SimilarProductsService similarProductsService;
+    
     public List<ProductFilter> getProductFilters(Long productId) {
         try {
             return productFilterRepository.findByProductId(productId);
@@ -47,28 +66,43 @@ public class ProductFilterService {
             // Remove existing filters for this product
             productFilterRepository.deleteByProductId(product.getId());
             
+            // Resolve referenced filter values through the second-level cache (filter by natural id,
+            // then its cached value collection), so a warm cache needs no queries here
+            Map<String, Map<String, FilterValue>> valuesByFilter = new HashMap<>();
+            for (String filterName : filterData.keySet()) {
+                filterRepository.findByName(filterName).ifPresent(filter -> {
+                    Map<String, FilterValue> values = new HashMap<>();
+                    for (FilterValue filterValue : filter.getFilterValues()) {
+                        values.put(filterValue.getValue(), filterValue);
+                    }
+                    valuesByFilter.put(filterName, values);
+                });
+            }
+            
             // Add new filters
+            List<ProductFilter> productFilters = new ArrayList<>();
             for (Map.Entry<String, List<String>> entry : filterData.entrySet()) {
                 String filterName = entry.getKey();
-                List<String> values = entry.getValue();
+                Map<String, FilterValue> knownValues = valuesByFilter.getOrDefault(filterName, Collections.emptyMap());
                 
-                Optional<Filter> filterOpt = filterRepository.findByName(filterName);
-                if (filterOpt.isPresent()) {
-                    Filter filter = filterOpt.get();
-                    
-                    for (String value : values) {
-                        Optional<FilterValue> filterValueOpt = filterValueRepository.findByFilterIdAndValue(filter.getId(), value);
-                        if (filterValueOpt.isPresent()) {
-                            ProductFilter productFilter = new ProductFilter(product, filter, filterValueOpt.get());
-                            productFilterRepository.save(productFilter);
-                        } else {
-                            logger.warn("Filter value not found: {} = {}", filterName, value);
-                        }
+                for (String value : entry.getValue()) {
+                    FilterValue filterValue = knownValues.get(value);
+                    if (filterValue != null) {
+                        productFilters.add(new ProductFilter(product, filterValue.getFilter(), filterValue));
+                    } else {
+                        logger.warn("Filter value not found: {} = {}", filterName, value);
                     }
-                } else {
-                    logger.warn("Filter not found: {}", filterName);
                 }
             }
+            productFilterRepository.saveAll(productFilters);
+            productRepository.touch(product.getId(), LocalDateTime.now());
+            catalogChangeLogService.record(CatalogVersionService.PRODUCT, product.getId(), product.getId(),
+                    CatalogChange.Operation.UPDATED);
+            catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT, product.getId());
+            similarProductsService.filtersChanged(product.getId(),
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    productFilters.stream().map(productFilter -> productFilter.getFilterValue().getId())
+                            .collect(Collectors.toList()));
             
             logger.info("Product filters updated successfully");
             
@@ -78,32 +112,53 @@ public class ProductFilterService {
         }
     }
     
+    @Transactional(readOnly = true)
     public Map<String, List<String>> getProductFilterValues(Long productId) {
         try {
-            List<ProductFilter> productFilters = productFilterRepository.findByProductId(productId);
-            
-            return productFilters.stream()
-                    .collect(Collectors.groupingBy(
-                        pf -> pf.getFilter().getName(),
-                        Collectors.mapping(
-                            pf -> pf.getFilterValue().getValue(),
-                            Collectors.toList()
-                        )
-                    ));
+            return getProductFilterValues(List.of(productId)).getOrDefault(productId, Collections.emptyMap());
         } catch (Exception e) {
             logger.error("Error fetching product filter values for product {}", productId, e);
             return Collections.emptyMap();
         }
     }
     
-    public List<Long> findProductIdsByFilters(Map<String, List<String>> filters) {
+    /**
+     * Filter values for many products, loaded with one query per {@value #BATCH_SIZE} products
+     * instead of one query (plus lazy filter and value loads) per product.
+     *
+     * @return filter name to values, keyed by product id; products without filters are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, List<String>>> getProductFilterValues(Collection<Long> productIds) {
+        Map<Long, Map<String, List<String>>> result = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            for (Object[] row : productFilterRepository.findFilterValuesByProductIds(batch)) {
+                result.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                      .computeIfAbsent((String) row[1], name -> new ArrayList<>())
+                      .add((String) row[2]);
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Ids of the products that have, for every named filter, at least one of the listed values.
+     * Filters that do not exist are ignored. Per-filter matches are intersected smallest first,
+     * as primitive sorted id sets.
+     */
+    @Transactional(readOnly = true)
+    public SortedLongSet findProductIdsByFilters(Map<String, List<String>> filters) {
         try {
             if (filters.isEmpty()) {
-                return Collections.emptyList();
+                return SortedLongSet.EMPTY;
             }
             
             // Get all product IDs that match each filter
-            List<Set<Long>> filterResults = new ArrayList<>();
+            List<SortedLongSet> filterResults = new ArrayList<>();
             
             for (Map.Entry<String, List<String>> entry : filters.entrySet()) {
                 String filterName = entry.getKey();
@@ -113,25 +168,26 @@ public class ProductFilterService {
                 if (filterOpt.isPresent()) {
                     List<Long> productIds = productFilterRepository.findProductIdsByFilterAndValues(
                         filterOpt.get().getId(), values);
-                    filterResults.add(new HashSet<>(productIds));
+                    filterResults.add(SortedLongSet.of(productIds));
                 }
             }
             
             // Find intersection of all filter results (products that match ALL filters)
             if (filterResults.isEmpty()) {
-                return Collections.emptyList();
+                return SortedLongSet.EMPTY;
             }
             
-            Set<Long> result = new HashSet<>(filterResults.get(0));
-            for (int i = 1; i < filterResults.size(); i++) {
-                result.retainAll(filterResults.get(i));
+            filterResults.sort(Comparator.comparingInt(SortedLongSet::size));
+            SortedLongSet result = filterResults.get(0);
+            for (int i = 1; i < filterResults.size() && !result.isEmpty(); i++) {
+                result = result.intersect(filterResults.get(i));
             }
             
-            return new ArrayList<>(result);
+            return result;
             
         } catch (Exception e) {
             logger.error("Error finding products by filters", e);
-            return Collections.emptyList();
+            return SortedLongSet.EMPTY;
         }
     }
 }
\ No newline at end of file
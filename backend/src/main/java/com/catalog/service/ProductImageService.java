@@ -1,14 +1,18 @@
 package com.catalog.service;
 
+import com.catalog.entity.CatalogChange;
 import com.catalog.entity.Product;
 import com.catalog.entity.ProductImage;
 import com.catalog.repository.ProductImageRepository;
+import com.catalog.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -16,8 +20,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -27,9 +36,21 @@ public class ProductImageService {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductImageService.class);
     
+    // Upper bound for IN (...) lists when loading images for many products at once
+    private static final int BATCH_SIZE = 1000;
+    
     @Autowired
     private ProductImageRepository productImageRepository;
     
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogChangeLogService catalogChangeLogService;
+    
     @Value("${catalog.image.upload.path:uploads/products/}")
     private String uploadPath;
     
@@ -57,6 +78,27 @@ public class ProductImageService {
         }
     }
     
+    /**
+     * Images for many products, loaded with one query per {@value #BATCH_SIZE} products.
+     *
+     * @return images in display order, keyed by product id; products without images are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ProductImage>> getProductImages(Collection<Long> productIds) {
+        Map<Long, List<ProductImage>> result = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            for (ProductImage image : productImageRepository.findByProductIds(batch)) {
+                result.computeIfAbsent(image.getProduct().getId(), id -> new ArrayList<>()).add(image);
+            }
+        }
+        
+        logger.debug("Found images for {} of {} products", result.size(), ids.size());
+        return result;
+    }
+    
     @Transactional(readOnly = true)
     public Optional<ProductImage> getPrimaryImage(Long productId) {
         try {
@@ -161,6 +203,10 @@ public class ProductImageService {
             productImageRepository.flush();
             
             logger.info("Image saved successfully with ID: {}", savedImage.getId());
+            productRepository.touch(product.getId(), LocalDateTime.now());
+            catalogChangeLogService.record(CatalogVersionService.PRODUCT_IMAGE, savedImage.getId(), product.getId(),
+                    CatalogChange.Operation.CREATED);
+            catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT_IMAGE, savedImage.getId());
             
             return savedImage;
             
@@ -199,6 +245,10 @@ public class ProductImageService {
                 productImageRepository.flush();
                 
                 logger.info("Primary image set successfully");
+                productRepository.touch(productId, LocalDateTime.now());
+                catalogChangeLogService.record(CatalogVersionService.PRODUCT_IMAGE, imageId, productId,
+                        CatalogChange.Operation.UPDATED);
+                catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT_IMAGE, imageId);
             } else {
                 throw new IllegalArgumentException("Image not found or doesn't belong to product");
             }
@@ -238,17 +288,7 @@ public class ProductImageService {
                 logger.info("Image deleted from database successfully");
                 
                 // Delete file from filesystem (after database deletion)
-                try {
-                    if (imageUrl != null && imageUrl.contains("/")) {
-                        String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-                        Path filePath = Paths.get(uploadPath).resolve(filename);
-                        boolean fileDeleted = Files.deleteIfExists(filePath);
-                        logger.debug("File deletion result: {} for file: {}", fileDeleted, filePath);
-                    }
-                } catch (IOException e) {
-                    // Log error but don't fail the operation since database deletion succeeded
-                    logger.warn("Failed to delete file (database deletion succeeded)", e);
-                }
+                deleteFile(imageUrl);
                 
                 // If this was the primary image, make another image primary
                 if (wasPrimary) {
@@ -267,6 +307,10 @@ public class ProductImageService {
                 }
                 
                 logger.info("Image deletion completed");
+                productRepository.touch(productId, LocalDateTime.now());
+                catalogChangeLogService.record(CatalogVersionService.PRODUCT_IMAGE, imageId, productId,
+                        CatalogChange.Operation.DELETED);
+                catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT_IMAGE, imageId);
                 return true;
             }
             
@@ -279,6 +323,29 @@ public class ProductImageService {
         }
     }
     
+    /**
+     * Deletes all image rows of a product in one statement. Their files are deleted once the
+     * transaction commits, so a rollback leaves both rows and files in place.
+     */
+    @Transactional
+    public void deleteProductImages(Long productId) {
+        List<String> imageUrls = productImageRepository.findImageUrlsByProductId(productId);
+        if (imageUrls.isEmpty()) {
+            return;
+        }
+        productImageRepository.deleteByProductId(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    imageUrls.forEach(ProductImageService.this::deleteFile);
+                }
+            });
+        } else {
+            imageUrls.forEach(this::deleteFile);
+        }
+    }
+    
     @Transactional
     public ProductImage updateProductImage(Long imageId, String altText, Integer displayOrder, Boolean isPrimary) {
         try {
@@ -313,6 +380,10 @@ public class ProductImageService {
                 productImageRepository.flush();
                 
                 logger.info("Image updated successfully");
+                productRepository.touch(image.getProduct().getId(), LocalDateTime.now());
+                catalogChangeLogService.record(CatalogVersionService.PRODUCT_IMAGE, imageId, image.getProduct().getId(),
+                        CatalogChange.Operation.UPDATED);
+                catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT_IMAGE, imageId);
                 return updatedImage;
             }
             
@@ -324,4 +395,18 @@ public class ProductImageService {
             throw new RuntimeException("Failed to update image: " + e.getMessage(), e);
         }
     }
+    
+    private void deleteFile(String imageUrl) {
+        try {
+            if (imageUrl != null && imageUrl.contains("/")) {
+                String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
+                Path filePath = Paths.get(uploadPath).resolve(filename);
+                boolean fileDeleted = Files.deleteIfExists(filePath);
+                logger.debug("File deletion result: {} for file: {}", fileDeleted, filePath);
+            }
+        } catch (IOException e) {
+            // Log error but don't fail the operation since database deletion succeeded
+            logger.warn("Failed to delete file (database deletion succeeded)", e);
+        }
+    }
 }
\ No newline at end of file
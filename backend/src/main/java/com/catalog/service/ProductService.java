@@ -1,31 +1,87 @@
 package com.catalog.service;
 
+import com.catalog.dto.ProductBulkUpdateRequest;
+import com.catalog.dto.ProductBulkUpdateResponse;
+import com.catalog.entity.CatalogChange;
 import com.catalog.entity.Product;
+import com.catalog.repository.CategoryRepository;
+import com.catalog.repository.ProductFilterRepository;
 import com.catalog.repository.ProductRepository;
+import com.catalog.repository.ProductRepositoryCustom;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class ProductService {
     
+    // Upper bound for an explicit id selection in bulk updates (IN list size)
+    private static final int MAX_BULK_IDS = 10000;
+    
+    private static final int MAX_PATCHES = 1000;
+    private static final int PATCH_BATCH_SIZE = 100;
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductFilterRepository productFilterRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogChangeLogService catalogChangeLogService;
+    
+    @Autowired
+    private ProductFilterService productFilterService;
+    
+    @Autowired
+    private ProductImageService productImageService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
     
+    @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        CatalogChange.Operation operation = product.getId() == null
+                ? CatalogChange.Operation.CREATED : CatalogChange.Operation.UPDATED;
+        Product savedProduct = productRepository.save(product);
+        catalogChangeLogService.record(CatalogVersionService.PRODUCT, savedProduct.getId(), savedProduct.getId(), operation);
+        catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT, savedProduct.getId());
+        return savedProduct;
     }
     
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isPresent()) {
@@ -36,47 +92,339 @@ public class ProductService {
             product.setCostPrice(productDetails.getCostPrice());
             product.setCategory(productDetails.getCategory());
             product.setInStock(productDetails.getInStock());
-            return productRepository.save(product);
+            Product savedProduct = productRepository.save(product);
+            catalogChangeLogService.record(CatalogVersionService.PRODUCT, id, id, CatalogChange.Operation.UPDATED);
+            catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT, id);
+            return savedProduct;
         }
         return null;
     }
     
+    @Transactional
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
+            // Filter assignments and image rows reference the product, so they go first; image files
+            // are removed after commit
+            productFilterRepository.deleteByProductId(id);
+            productImageService.deleteProductImages(id);
             productRepository.deleteById(id);
+            catalogChangeLogService.record(CatalogVersionService.PRODUCT, id, id, CatalogChange.Operation.DELETED);
+            catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT, id);
             return true;
         }
         return false;
     }
     
+    /**
+     * Applies one price and/or stock change to every product matching the request's selection with
+     * set-based statements: a check that no price would drop to zero, the UPDATE itself and one
+     * INSERT ... SELECT into the change log. Publishes a single catalog change for all of them.
+     *
+     * @throws IllegalArgumentException if the request is incomplete, names an unknown category or
+     *         would leave a price at zero or below; nothing is changed then
+     */
+    @Transactional
+    public ProductBulkUpdateResponse bulkUpdate(ProductBulkUpdateRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasCategory = request.getCategory() != null && !request.getCategory().isEmpty();
+        Map<String, List<String>> filters = new HashMap<>();
+        if (request.getFilters() != null) {
+            request.getFilters().forEach((name, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    filters.put(name, values);
+                }
+            });
+        }
+        if (!hasIds && !hasCategory && filters.isEmpty()) {
+            throw new IllegalArgumentException("Select products by ids, category and/or filters");
+        }
+        if (hasIds && request.getIds().size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " product ids can be given");
+        }
+        if (request.getPriceMode() == null && request.getInStock() == null) {
+            throw new IllegalArgumentException("A price change (priceMode and priceValue) and/or inStock is required");
+        }
+        if (request.getPriceMode() != null && request.getPriceValue() == null) {
+            throw new IllegalArgumentException("priceValue is required with priceMode");
+        }
+        
+        Long categoryId = null;
+        if (hasCategory) {
+            categoryId = categoryRepository.findByName(request.getCategory())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown category: " + request.getCategory()))
+                    .getId();
+        }
+        ProductRepositoryCustom.Selection selection =
+                new ProductRepositoryCustom.Selection(hasIds ? request.getIds() : null, categoryId, filters);
+        
+        long priceUnchanged = 0;
+        if (request.getPriceMode() != null) {
+            long nonPositive = productRepository.countNonPositivePrices(selection, request.getPriceMode(),
+                    request.getPriceValue());
+            if (nonPositive > 0) {
+                throw new IllegalArgumentException(nonPositive + " products would get a price of zero or below");
+            }
+            if (request.getPriceMode() == ProductBulkUpdateRequest.PriceMode.COST_PLUS) {
+                priceUnchanged = productRepository.countWithoutCostPrice(selection);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        int updated = productRepository.bulkUpdate(selection, request.getPriceMode(), request.getPriceValue(),
+                request.getInStock(), now);
+        if (updated > 0) {
+            productRepository.recordBulkChanges(selection, now);
+            catalogVersionService.catalogChanged(CatalogVersionService.CATALOG, null);
+        }
+        return new ProductBulkUpdateResponse(updated, priceUnchanged);
+    }
+    
+    /**
+     * Applies partial updates to many products in one transaction. Each patch holds the product
+     * {@code id} and any of {@code name}, {@code description}, {@code price}, {@code costPrice}
+     * ({@code null} clears it), {@code category} (by name), {@code inStock} and
+     * {@code filterValues}; fields not named are left as they are, and filter assignments are only
+     * rewritten for products whose patch names them. Each UPDATE sets only the named columns, and
+     * patches naming the same columns go to the database as one JDBC batch. Returns the updated
+     * products in patch order.
+     *
+     * @throws IllegalArgumentException if any patch is invalid or names a missing product; nothing
+     *         is changed then
+     */
+    @Transactional
+    public List<Product> patchProducts(List<Map<String, Object>> patches) {
+        if (patches == null || patches.isEmpty() || patches.size() > MAX_PATCHES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PATCHES + " product patches are required");
+        }
+        
+        Map<Long, Map<String, Object>> columnsById = new LinkedHashMap<>();
+        Map<Long, Map<String, List<String>>> filterChanges = new LinkedHashMap<>();
+        for (Map<String, Object> patch : patches) {
+            Long id = patch.get("id") instanceof Number ? ((Number) patch.get("id")).longValue() : null;
+            if (id == null) {
+                throw new IllegalArgumentException("Every patch needs a numeric product id");
+            }
+            if (columnsById.containsKey(id)) {
+                throw new IllegalArgumentException("Product " + id + " is patched more than once");
+            }
+            columnsById.put(id, patchColumns(id, patch));
+            if (patch.containsKey("filterValues")) {
+                filterChanges.put(id, patchFilterValues(id, patch.get("filterValues")));
+            }
+        }
+        
+        Set<Long> existing = new HashSet<>(productRepository.findIdsByIdIn(columnsById.keySet()));
+        for (Long id : columnsById.keySet()) {
+            if (!existing.contains(id)) {
+                throw new IllegalArgumentException("Product not found: " + id);
+            }
+        }
+        
+        // One statement, and so one batch, per set of named columns (grid edits mostly name the same)
+        LocalDateTime now = LocalDateTime.now();
+        Map<List<String>, List<Object[]>> batches = new LinkedHashMap<>();
+        columnsById.forEach((id, columns) -> {
+            if (!columns.isEmpty()) {
+                List<Object> arguments = new ArrayList<>(columns.values());
+                arguments.add(Timestamp.valueOf(now));
+                arguments.add(id);
+                batches.computeIfAbsent(new ArrayList<>(columns.keySet()), key -> new ArrayList<>())
+                        .add(arguments.toArray());
+            }
+        });
+        // Runs on the connection of the JPA transaction; products are not in the second-level cache
+        batches.forEach((columns, rows) -> {
+            String sql = "UPDATE products SET " + String.join(" = ?, ", columns) + " = ?, updated_at = ? WHERE id = ?";
+            jdbcTemplate.batchUpdate(sql, rows, PATCH_BATCH_SIZE, (statement, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+            });
+        });
+        
+        for (Map.Entry<Long, Map<String, List<String>>> entry : filterChanges.entrySet()) {
+            // Also records the change and publishes it for the product
+            productFilterService.updateProductFilters(productRepository.getReferenceById(entry.getKey()),
+                    entry.getValue());
+        }
+        List<Long> columnsOnly = new ArrayList<>();
+        List<Long> moved = new ArrayList<>();
+        for (Long id : columnsById.keySet()) {
+            if (!filterChanges.containsKey(id)) {
+                columnsOnly.add(id);
+                if (columnsById.get(id).containsKey("category_id")) {
+                    moved.add(id);
+                }
+            }
+        }
+        if (!columnsOnly.isEmpty()) {
+            productRepository.recordBulkChanges(new ProductRepositoryCustom.Selection(columnsOnly, null, null), now);
+            // Category moves are published per product, like filter changes, so the similarity index
+            // reloads those products; one catalog event covers the rest
+            for (Long id : moved) {
+                catalogVersionService.catalogChanged(CatalogVersionService.PRODUCT, id);
+            }
+            if (moved.size() < columnsOnly.size()) {
+                catalogVersionService.catalogChanged(CatalogVersionService.CATALOG, null);
+            }
+        }
+        
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findByIdIn(columnsById.keySet())) {
+            products.put(product.getId(), product);
+        }
+        List<Product> patched = new ArrayList<>(columnsById.size());
+        for (Long id : columnsById.keySet()) {
+            patched.add(products.get(id));
+        }
+        return patched;
+    }
+    
+    // Column name to new value for the named fields, validated like the entity's constraints
+    private Map<String, Object> patchColumns(Long id, Map<String, Object> patch) {
+        Map<String, Object> columns = new TreeMap<>();
+        try {
+            for (Map.Entry<String, Object> field : patch.entrySet()) {
+                Object value = field.getValue();
+                switch (field.getKey()) {
+                    case "id":
+                    case "filterValues":
+                        break;
+                    case "name":
+                        String name = (String) value;
+                        if (name == null || name.isBlank() || name.length() > 255) {
+                            throw new IllegalArgumentException("Product " + id + ": name is required and at most 255 characters");
+                        }
+                        columns.put("name", name);
+                        break;
+                    case "description":
+                        columns.put("description", (String) value);
+                        break;
+                    case "price":
+                        BigDecimal price = value == null ? null : new BigDecimal(value.toString());
+                        if (price == null || price.signum() <= 0) {
+                            throw new IllegalArgumentException("Product " + id + ": price must be greater than 0");
+                        }
+                        columns.put("price", price);
+                        break;
+                    case "costPrice":
+                        BigDecimal costPrice = value == null ? null : new BigDecimal(value.toString());
+                        if (costPrice != null && costPrice.signum() <= 0) {
+                            throw new IllegalArgumentException("Product " + id + ": cost price must be greater than 0");
+                        }
+                        columns.put("cost_price", costPrice);
+                        break;
+                    case "category":
+                        String categoryName = (String) value;
+                        columns.put("category_id", categoryRepository.findByName(categoryName).orElseThrow(
+                                () -> new IllegalArgumentException("Product " + id + ": category not found: " + categoryName))
+                                .getId());
+                        break;
+                    case "inStock":
+                        if (value == null) {
+                            throw new IllegalArgumentException("Product " + id + ": inStock must be true or false");
+                        }
+                        columns.put("in_stock", (Boolean) value);
+                        break;
+                    case "images":
+                        throw new IllegalArgumentException("Product " + id + ": images cannot be patched (use the product image endpoints)");
+                    default:
+                        throw new IllegalArgumentException("Product " + id + ": " + field.getKey() + " cannot be patched");
+                }
+            }
+        } catch (ClassCastException | NumberFormatException e) {
+            throw new IllegalArgumentException("Product " + id + ": invalid field value (" + e.getMessage() + ")");
+        }
+        return columns;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<String>> patchFilterValues(Long id, Object filterValues) {
+        if (filterValues == null) {
+            return Collections.emptyMap();
+        }
+        if (!(filterValues instanceof Map)) {
+            throw new IllegalArgumentException("Product " + id + ": filterValues must map filter names to value lists");
+        }
+        for (Object values : ((Map<String, Object>) filterValues).values()) {
+            if (!(values instanceof List)) {
+                throw new IllegalArgumentException("Product " + id + ": filterValues must map filter names to value lists");
+            }
+        }
+        return (Map<String, List<String>>) filterValues;
+    }
+    
+    /**
+     * The products with the given ids that exist, in no particular order, with one query.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return productRepository.findByIdIn(ids);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        // The name resolves through the natural-id cache; products are then found by indexed id
+        return categoryRepository.findByName(category)
+                .map(c -> productRepository.findByCategoryId(c.getId()))
+                .orElse(Collections.emptyList());
+    }
+    
+    /**
+     * Same products as {@link #getAllProducts()}, {@link #getProductsByCategory},
+     * {@link #searchProducts} and {@link #searchProductsByCategory} (a {@code null} category or
+     * keyword leaves that condition out), but without loading their descriptions.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProductsWithoutDescription(String category, String keyword) {
+        if (category == null) {
+            return productRepository.findWithoutDescription(null, keyword);
+        }
+        return categoryRepository.findByName(category)
+                .map(c -> productRepository.findWithoutDescription(c.getId(), keyword))
+                .orElse(Collections.emptyList());
+    }
+    
+    public long countProductsByCategory(Long categoryId) {
+        return productRepository.countByCategoryId(categoryId);
     }
     
+    @Transactional(readOnly = true)
     public List<Product> searchProducts(String keyword) {
         return productRepository.findByKeyword(keyword);
     }
     
+    @Transactional(readOnly = true)
     public List<Product> searchProductsByCategory(String category, String keyword) {
-        return productRepository.findByCategoryAndKeyword(category, keyword);
+        return categoryRepository.findByName(category)
+                .map(c -> productRepository.findByCategoryIdAndKeyword(c.getId(), keyword))
+                .orElse(Collections.emptyList());
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAllCategories() {
         return productRepository.findAllCategories();
     }
     
+    @Transactional(readOnly = true)
     public List<Product> getInStockProducts() {
         return productRepository.findByInStock(true);
     }
     
+    @Transactional(readOnly = true)
     public List<Product> getLatestProducts() {
         return productRepository.findByOrderByCreatedAtDesc();
     }
     
+    @Transactional(readOnly = true)
     public List<Product> getProductsSortedByPriceAsc() {
         return productRepository.findByOrderByPriceAsc();
     }
     
+    @Transactional(readOnly = true)
     public List<Product> getProductsSortedByPriceDesc() {
         return productRepository.findByOrderByPriceDesc();
     }
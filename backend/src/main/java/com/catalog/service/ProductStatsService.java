@@ -0,0 +1,280 @@
+package com.catalog.service;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.entity.ProductStats;
+import com.catalog.repository.ProductStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts product detail views and listing impressions without touching the database on the
+ * request thread: each product has a pair of {@link LongAdder}s, so concurrent requests for the
+ * same product increment separate cells instead of contending on one counter.
+ * <p>
+ * Every {@code flush-ms} the counts gathered since the previous flush are added to the
+ * {@code product_stats} table in one batched upsert. A flush that fails is retried with the
+ * next one, since only a successful flush moves the flushed offsets; counts not yet flushed are
+ * lost if the instance dies, which is accepted for popularity figures.
+ * <p>
+ * The {@code popular} listing order uses the flushed view counts of all instances, loaded on
+ * first use and then every {@code ranking-refresh-ms}.
+ */
+@Service
+public class ProductStatsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductStatsService.class);
+    
+    // MySQL syntax; H2 accepts it in MySQL mode
+    private static final String UPSERT =
+            "INSERT INTO product_stats (product_id, views, impressions, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE views = views + VALUES(views), "
+            + "impressions = impressions + VALUES(impressions), updated_at = VALUES(updated_at)";
+    
+    @Value("${catalog.product-stats.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.product-stats.impressions-per-listing:48}")
+    private int impressionsPerListing;
+    
+    @Value("${catalog.product-stats.ranking-refresh-ms:60000}")
+    private long rankingRefreshMillis;
+    
+    @Autowired
+    private ProductStatsRepository productStatsRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicReference<Ranking> ranking = new AtomicReference<>();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile Instant lastFlush;
+    
+    public void recordView(Long productId) {
+        if (enabled && productId != null) {
+            counters(productId).views.increment();
+        }
+    }
+    
+    /**
+     * Records an impression for each of the first {@code impressions-per-listing} products of a
+     * listing, which is roughly what a client shows before the user scrolls.
+     */
+    public void recordImpressions(long[] productIds) {
+        if (!enabled) {
+            return;
+        }
+        int count = Math.min(productIds.length, impressionsPerListing);
+        for (int i = 0; i < count; i++) {
+            counters(productIds[i]).impressions.increment();
+        }
+    }
+    
+    public void recordImpressions(List<ProductDto> products) {
+        if (!enabled) {
+            return;
+        }
+        int count = Math.min(products.size(), impressionsPerListing);
+        for (int i = 0; i < count; i++) {
+            Long productId = products.get(i).getId();
+            if (productId != null) {
+                counters(productId).impressions.increment();
+            }
+        }
+    }
+    
+    private Counters counters(long productId) {
+        // Plain get first: computeIfAbsent locks the bin even when the entry exists
+        Counters existing = counters.get(productId);
+        return existing != null ? existing : counters.computeIfAbsent(productId, id -> new Counters());
+    }
+    
+    /**
+     * Flushed view count of a product, as of the last ranking refresh; 0 if it has none.
+     */
+    public long getViews(Long productId) {
+        Ranking current = currentRanking();
+        if (productId == null || current == null) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(current.productIds, productId);
+        return index >= 0 ? current.views[index] : 0;
+    }
+    
+    private Ranking currentRanking() {
+        Ranking current = ranking.get();
+        if (enabled && (current == null || current.loadedAt < System.currentTimeMillis() - rankingRefreshMillis)) {
+            current = loadRanking(current);
+        }
+        return current;
+    }
+    
+    private synchronized Ranking loadRanking(Ranking previous) {
+        Ranking current = ranking.get();
+        if (current != previous) {
+            // Another request reloaded it meanwhile
+            return current;
+        }
+        try {
+            List<long[]> rows = jdbcTemplate.query(
+                    "SELECT product_id, views FROM product_stats WHERE views > 0 ORDER BY product_id",
+                    (resultSet, rowNum) -> new long[] { resultSet.getLong(1), resultSet.getLong(2) });
+            long[] productIds = new long[rows.size()];
+            long[] views = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                productIds[i] = rows.get(i)[0];
+                views[i] = rows.get(i)[1];
+            }
+            current = new Ranking(productIds, views, System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("Could not load product view counts", e);
+            // Keep the old counts, and do not retry on every request
+            current = new Ranking(previous != null ? previous.productIds : new long[0],
+                    previous != null ? previous.views : new long[0], System.currentTimeMillis());
+        }
+        ranking.set(current);
+        return current;
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.product-stats.flush-ms:10000}",
+               initialDelayString = "${catalog.product-stats.flush-ms:10000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        
+        List<Object[]> rows = new ArrayList<>();
+        List<long[]> totals = new ArrayList<>();
+        List<Counters> flushed = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Counters entryCounters = entry.getValue();
+            long views = entryCounters.views.sum();
+            long impressions = entryCounters.impressions.sum();
+            long newViews = views - entryCounters.flushedViews;
+            long newImpressions = impressions - entryCounters.flushedImpressions;
+            if (newViews > 0 || newImpressions > 0) {
+                rows.add(new Object[] { entry.getKey(), newViews, newImpressions, now });
+                totals.add(new long[] { views, impressions });
+                flushed.add(entryCounters);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, rows));
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            logger.error("Error flushing {} product stats rows", rows.size(), e);
+            return;
+        }
+        
+        for (int i = 0; i < flushed.size(); i++) {
+            flushed.get(i).flushedViews = totals.get(i)[0];
+            flushed.get(i).flushedImpressions = totals.get(i)[1];
+        }
+        flushes.incrementAndGet();
+        flushedRows.addAndGet(rows.size());
+        lastFlush = Instant.now();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * The most viewed products with their flushed counts, most viewed first.
+     */
+    public List<Map<String, Object>> getMostViewed(int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ProductStats stats : productStatsRepository.findMostViewed(PageRequest.of(0, limit))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("productId", stats.getProductId());
+            entry.put("views", stats.getViews());
+            entry.put("impressions", stats.getImpressions());
+            long impressions = stats.getImpressions();
+            entry.put("viewsPerImpression", impressions == 0 ? 0.0 : (double) stats.getViews() / impressions);
+            entry.put("updatedAt", stats.getUpdatedAt() != null ? stats.getUpdatedAt().toString() : null);
+            result.add(entry);
+        }
+        return result;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        long pendingViews = 0;
+        long pendingImpressions = 0;
+        for (Counters entryCounters : counters.values()) {
+            pendingViews += entryCounters.views.sum() - entryCounters.flushedViews;
+            pendingImpressions += entryCounters.impressions.sum() - entryCounters.flushedImpressions;
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("trackedProducts", counters.size());
+        statistics.put("pendingViews", pendingViews);
+        statistics.put("pendingImpressions", pendingImpressions);
+        statistics.put("flushes", flushes.get());
+        statistics.put("flushedRows", flushedRows.get());
+        statistics.put("failedFlushes", failedFlushes.get());
+        statistics.put("lastFlush", lastFlush != null ? lastFlush.toString() : null);
+        List<Object[]> totals = productStatsRepository.sumTotals();
+        if (!totals.isEmpty()) {
+            statistics.put("totalViews", ((Number) totals.get(0)[0]).longValue());
+            statistics.put("totalImpressions", ((Number) totals.get(0)[1]).longValue());
+        }
+        return statistics;
+    }
+    
+    private static class Counters {
+        
+        private final LongAdder views = new LongAdder();
+        private final LongAdder impressions = new LongAdder();
+        // Only read and written by the (synchronized) flush
+        private long flushedViews;
+        private long flushedImpressions;
+    }
+    
+    private static class Ranking {
+        
+        // Sorted, for binary search
+        private final long[] productIds;
+        private final long[] views;
+        private final long loadedAt;
+        
+        Ranking(long[] productIds, long[] views, long loadedAt) {
+            this.productIds = productIds;
+            this.views = views;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.catalog.service;
+
+import com.catalog.util.HeavyHitters;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Most frequent listing queries since startup or the last {@link #clear()}, in constant memory
+ * ({@link HeavyHitters}): search terms, filter combinations (category and filter values) and
+ * query shapes (which parameters are given, without their values). The first two show what
+ * customers look for; shapes show which listings to pre-warm and which indexes pay off.
+ */
+@Service
+public class QueryAnalyticsService {
+    
+    // Longer keys are cut, so a single odd request cannot pin a large string in the heap
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    @Value("${catalog.query-analytics.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.query-analytics.top-k:100}")
+    private int topK;
+    
+    @Value("${catalog.query-analytics.sketch-depth:4}")
+    private int sketchDepth;
+    
+    @Value("${catalog.query-analytics.sketch-width:4096}")
+    private int sketchWidth;
+    
+    private HeavyHitters searchTerms;
+    private HeavyHitters filterCombinations;
+    private HeavyHitters queryShapes;
+    
+    @PostConstruct
+    public void init() {
+        searchTerms = new HeavyHitters(topK, sketchDepth, sketchWidth);
+        filterCombinations = new HeavyHitters(topK, sketchDepth, sketchWidth);
+        queryShapes = new HeavyHitters(topK, sketchDepth, sketchWidth);
+    }
+    
+    /**
+     * Records one listing request; {@code null} or empty arguments mean "not given".
+     */
+    public void record(String category, String search, String sort, Map<String, List<String>> filters) {
+        if (!enabled) {
+            return;
+        }
+        boolean hasCategory = category != null && !category.isEmpty();
+        
+        // Matching is case-insensitive and ignores extra whitespace, so the key does too
+        String term = search == null ? "" : WHITESPACE.matcher(search.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        if (!term.isEmpty()) {
+            searchTerms.add(truncate(term));
+        }
+        
+        // Filters are matched as sets: sort names and values
+        Map<String, List<String>> sortedFilters = new TreeMap<>();
+        filters.forEach((name, values) -> {
+            List<String> sortedValues = new ArrayList<>(values);
+            Collections.sort(sortedValues);
+            sortedFilters.put(name, sortedValues);
+        });
+        
+        if (hasCategory || !sortedFilters.isEmpty()) {
+            StringBuilder combination = new StringBuilder();
+            if (hasCategory) {
+                combination.append("category=").append(category);
+            }
+            sortedFilters.forEach((name, values) -> {
+                if (combination.length() > 0) {
+                    combination.append('&');
+                }
+                combination.append(name).append('=').append(String.join(",", values));
+            });
+            filterCombinations.add(truncate(combination.toString()));
+        }
+        
+        StringBuilder shape = new StringBuilder();
+        if (hasCategory) {
+            shape.append("category");
+        }
+        if (!term.isEmpty()) {
+            shape.append(shape.length() > 0 ? "&" : "").append("search");
+        }
+        for (String name : sortedFilters.keySet()) {
+            shape.append(shape.length() > 0 ? "&" : "").append(name);
+        }
+        if (sort != null && !sort.isEmpty()) {
+            shape.append(shape.length() > 0 ? "&" : "").append("sort=").append(sort);
+        }
+        queryShapes.add(truncate(shape.length() > 0 ? shape.toString() : "(all products)"));
+    }
+    
+    public Map<String, Object> getTopQueries(int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("searchTerms", summary(searchTerms, limit));
+        result.put("filterCombinations", summary(filterCombinations, limit));
+        result.put("queryShapes", summary(queryShapes, limit));
+        return result;
+    }
+    
+    public void clear() {
+        searchTerms.clear();
+        filterCombinations.clear();
+        queryShapes.clear();
+    }
+    
+    private static Map<String, Object> summary(HeavyHitters heavyHitters, int limit) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", heavyHitters.getTotal());
+        summary.put("errorBound", heavyHitters.getErrorBound());
+        summary.put("top", heavyHitters.top(limit));
+        return summary;
+    }
+    
+    private static String truncate(String key) {
+        return key.length() <= MAX_KEY_LENGTH ? key : key.substring(0, MAX_KEY_LENGTH);
+    }
+}
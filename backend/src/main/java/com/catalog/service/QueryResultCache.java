@@ -0,0 +1,232 @@
+package com.catalog.service;
+
+import com.catalog.event.CatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache for the results of public catalog queries, keyed by the normalized query.
+ * <p>
+ * Concurrent requests for the same key share a single computation: the first one runs the loader
+ * and the others wait for its result. Results are then served as-is for {@code ttl-ms}; for a
+ * further {@code stale-ms} they are still served, while one background refresh replaces them. A
+ * burst of identical requests therefore reaches the database about once per key and interval.
+ * Every {@link CatalogChangedEvent} drops all results, so edits show up on the next request.
+ * <p>
+ * Cached values are shared between requests and must not be modified by callers.
+ */
+@Service
+public class QueryResultCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+    
+    @Value("${catalog.query-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${catalog.query-cache.ttl-ms:2000}")
+    private long ttlMillis;
+    
+    @Value("${catalog.query-cache.stale-ms:10000}")
+    private long staleMillis;
+    
+    @Value("${catalog.query-cache.max-entries:1000}")
+    private int maxEntries;
+    
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    
+    // Moves on every invalidation; loads that started before it do not store their (older) result
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.loadedAt;
+            if (age < ttlMillis) {
+                hits.increment();
+                return (T) entry.value;
+            }
+            if (age < ttlMillis + staleMillis) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+                return (T) entry.value;
+            }
+        }
+        
+        return (T) load(key, loader);
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("entries", entries.size());
+        statistics.put("hits", hits.sum());
+        statistics.put("staleHits", staleHits.sum());
+        statistics.put("misses", misses.sum());
+        statistics.put("coalesced", coalesced.sum());
+        statistics.put("refreshes", refreshes.sum());
+        return statistics;
+    }
+    
+    public void clearStatistics() {
+        hits.reset();
+        staleHits.reset();
+        misses.reset();
+        coalesced.reset();
+        refreshes.reset();
+    }
+    
+    private Object load(String key, Supplier<?> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            try {
+                Object value = running.get();
+                coalesced.increment();
+                return value;
+            } catch (CancellationException e) {
+                // The background refresh we were waiting for never ran; load on our own
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for query " + key, e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+            misses.increment();
+            return loader.get();
+        }
+        
+        misses.increment();
+        try {
+            Object value = loadAndStore(key, loader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+    
+    private void refreshInBackground(String key, Supplier<?> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    // Request threads load inside open-session-in-view; give the mapper a session here too
+                    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                    readOnly.setReadOnly(true);
+                    Object value = readOnly.execute(status -> loadAndStore(key, loader));
+                    refreshes.increment();
+                    future.complete(value);
+                } catch (RuntimeException | Error e) {
+                    logger.warn("Background refresh of query {} failed", key, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor is saturated: keep serving the stale result and try again on a later request
+            inFlight.remove(key, future);
+            future.cancel(false);
+        }
+    }
+    
+    private Object loadAndStore(String key, Supplier<?> loader) {
+        long startGeneration = generation.get();
+        Object value = loader.get();
+        
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                return value;
+            }
+        }
+        
+        Entry entry = new Entry(value, System.currentTimeMillis());
+        if (generation.get() == startGeneration) {
+            entries.put(key, entry);
+            // The catalog may have changed while we were storing; never keep a result from before
+            if (generation.get() != startGeneration) {
+                entries.remove(key, entry);
+            }
+        }
+        return value;
+    }
+    
+    private void evictExpired() {
+        long oldest = System.currentTimeMillis() - ttlMillis - staleMillis;
+        entries.values().removeIf(entry -> entry.loadedAt <= oldest);
+    }
+    
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+    
+    private static class Entry {
+        
+        private final Object value;
+        private final long loadedAt;
+        
+        Entry(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
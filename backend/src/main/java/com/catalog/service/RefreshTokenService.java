@@ -0,0 +1,179 @@
+package com.catalog.service;
+
+import com.catalog.entity.RefreshToken;
+import com.catalog.entity.User;
+import com.catalog.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so clients renew their short-lived access tokens without
+ * sending the password again. A token is 256 random bits; only its SHA-256 hash is stored, which
+ * is enough for a value that cannot be guessed, and costs one indexed lookup to find instead of a
+ * BCrypt check.
+ * <p>
+ * Each refresh marks the presented token used and hands out its successor. A used token that is
+ * presented again was copied, so the whole family (every token descended from the same sign-in)
+ * is revoked, logging out both the thief and the owner. A token used less than
+ * {@code refreshReuseGraceMs} ago is only rejected, as that is usually a second tab refreshing at the
+ * same moment.
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    @Value("${catalog.app.refreshExpirationMs:2592000000}")
+    private long refreshExpirationMs;
+    
+    @Value("${catalog.app.refreshReuseGraceMs:10000}")
+    private long reuseGraceMs;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    /**
+     * Starts a new token family for a sign-in and returns its first token.
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+    
+    /**
+     * Exchanges a refresh token for its successor. Empty if the token is unknown, expired,
+     * revoked or already used; in the last case its family is revoked as well.
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHashWithUser(hash(token));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        RefreshToken refreshToken = found.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshToken.getRevokedAt() != null || refreshToken.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        if (refreshToken.getUsedAt() != null || refreshTokenRepository.markUsed(refreshToken.getId(), now) == 0) {
+            reused(refreshToken, now);
+            return Optional.empty();
+        }
+        
+        User user = refreshToken.getUser();
+        return Optional.of(new Rotation(user, issue(user, refreshToken.getFamilyId(), now)));
+    }
+    
+    private void reused(RefreshToken refreshToken, LocalDateTime now) {
+        LocalDateTime usedAt = refreshToken.getUsedAt();
+        if (usedAt != null && usedAt.isBefore(now.minus(Duration.ofMillis(reuseGraceMs)))) {
+            int revoked = refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), now);
+            logger.warn("Refresh token reuse for user {}: revoked {} tokens of its family",
+                    refreshToken.getUser().getId(), revoked);
+        }
+        // Otherwise a concurrent refresh won the race, or the token was used moments ago
+    }
+    
+    /**
+     * Revokes the family of a refresh token, e.g. on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHashWithUser(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(),
+                        LocalDateTime.now()));
+    }
+    
+    /**
+     * Revokes every refresh token of a user, after changes that must end their sessions (role,
+     * status, password). Access tokens already issued stay valid until they expire.
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        if (revoked > 0) {
+            logger.info("Revoked {} refresh tokens of user {}", revoked, userId);
+        }
+    }
+    
+    @Scheduled(cron = "${catalog.app.refresh-purge-cron:0 45 3 * * *}")
+    public void purgeExpiredTokens() {
+        try {
+            int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+            if (purged > 0) {
+                logger.info("Purged {} expired refresh tokens", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Error purging expired refresh tokens", e);
+        }
+    }
+    
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+    
+    private String issue(User user, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(token), user, familyId, now,
+                now.plus(Duration.ofMillis(refreshExpirationMs))));
+        return token;
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * The user a refresh token belonged to and the token that replaces it.
+     */
+    public static class Rotation {
+        
+        private final User user;
+        private final String refreshToken;
+        
+        public Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+        
+        public User getUser() {
+            return user;
+        }
+        
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
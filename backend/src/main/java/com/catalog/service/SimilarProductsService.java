@@ -0,0 +1,343 @@
+package com.catalog.service;
+
+import com.catalog.event.CatalogChangedEvent;
+import com.catalog.repository.ProductFilterRepository;
+import com.catalog.util.SortedLongSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Finds products in the same category that share the most filter values with a given product,
+ * without comparing it against every other product: each product's set of filter value ids gets a
+ * MinHash signature, split into bands, and products whose signatures agree on a whole band land in
+ * the same bucket (locality-sensitive hashing). Only the products sharing a bucket with the given
+ * one are candidates; they are ranked by their exact Jaccard similarity.
+ * <p>
+ * The index is built from all filter assignments on first use and every {@code rebuild-ms}, which
+ * also picks up changes made by other instances. In between,
+ * {@link ProductFilterService#updateProductFilters} updates a product's entry once its transaction
+ * commits, and other product changes (category moves, deletes) reload the affected products before
+ * the next lookup.
+ */
+@Service
+public class SimilarProductsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SimilarProductsService.class);
+    
+    // Two values per band: products sharing a fifth of their values already collide in most cases,
+    // which suits the handful of filter values a product typically has
+    private static final int BANDS = 32;
+    private static final int ROWS = 2;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS;
+    
+    // Fixed seeds, so every instance and rebuild produces the same signatures
+    private static final long[] HASH_SEEDS = new Random(0x5eed).longs(SIGNATURE_LENGTH).toArray();
+    
+    @Value("${catalog.similar.enabled:true}")
+    private boolean enabled;
+    
+    @Autowired
+    private ProductFilterRepository productFilterRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final AtomicReference<Index> current = new AtomicReference<>();
+    // Products changed since the last lookup, reloaded before the next one
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    
+    /**
+     * Up to {@code limit} products of the same category as {@code productId}, most filter values
+     * in common first, as product id and Jaccard similarity of their filter value sets. Empty
+     * when the product has no filter values or no category.
+     */
+    public List<Map.Entry<Long, Double>> findSimilar(Long productId, int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        Index index = index();
+        reloadDirty(index);
+        lookups.incrementAndGet();
+        return index.findSimilar(productId, limit);
+    }
+    
+    /**
+     * Replaces the filter values of a product once the current transaction commits (right away
+     * without one).
+     */
+    public void filtersChanged(Long productId, Long categoryId, Collection<Long> filterValueIds) {
+        if (!enabled) {
+            return;
+        }
+        SortedLongSet values = SortedLongSet.of(filterValueIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(productId, categoryId, values);
+                }
+            });
+        } else {
+            apply(productId, categoryId, values);
+        }
+    }
+    
+    private void apply(Long productId, Long categoryId, SortedLongSet values) {
+        Index index = current.get();
+        if (index != null) {
+            index.put(productId, categoryId, values);
+            incrementalUpdates.incrementAndGet();
+        }
+        // Already up to date, as the change event for this write was published first; unless an
+        // index being built read the assignments before this commit
+        if (!building) {
+            dirty.remove(productId);
+        }
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (CatalogVersionService.PRODUCT.equals(event.getEntityType()) && event.getEntityId() != null) {
+            dirty.add(event.getEntityId());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.similar.rebuild-ms:3600000}",
+               initialDelayString = "${catalog.similar.rebuild-ms:3600000}")
+    public void rebuild() {
+        if (enabled && current.get() != null) {
+            build();
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Index index = current.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("builds", builds.get());
+        statistics.put("incrementalUpdates", incrementalUpdates.get());
+        statistics.put("lookups", lookups.get());
+        statistics.put("pendingReloads", dirty.size());
+        if (index != null) {
+            statistics.put("products", index.size());
+        }
+        return statistics;
+    }
+    
+    private Index index() {
+        Index index = current.get();
+        return index != null ? index : initialIndex();
+    }
+    
+    private synchronized Index initialIndex() {
+        // Concurrent first lookups build it once
+        Index index = current.get();
+        return index != null ? index : build();
+    }
+    
+    private synchronized Index build() {
+        Index previous = current.get();
+        building = true;
+        try {
+            // Changes from here on are reloaded on top of the new index
+            dirty.clear();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            List<Object[]> assignments = readOnly.execute(status -> productFilterRepository.findAllAssignments());
+            
+            Index index = new Index();
+            load(index, assignments);
+            current.set(index);
+            builds.incrementAndGet();
+            logger.info("Built similar products index: {} products", index.size());
+            return index;
+        } catch (Exception e) {
+            logger.error("Error building similar products index", e);
+            if (previous != null) {
+                return previous;
+            }
+            throw e;
+        } finally {
+            building = false;
+        }
+    }
+    
+    private void reloadDirty(Index index) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>(dirty);
+        dirty.removeAll(productIds);
+        try {
+            // Not read-only: these products were just written, and a replica that has not caught up
+            // would put their old category and values back into the index until the next rebuild
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            List<Object[]> assignments = transaction.execute(
+                    status -> productFilterRepository.findAssignmentsByProductIds(productIds));
+            
+            // Products without rows have lost all filter values or were deleted
+            for (Long productId : productIds) {
+                index.remove(productId);
+            }
+            load(index, assignments);
+        } catch (Exception e) {
+            dirty.addAll(productIds);
+            logger.warn("Could not reload {} changed products into the similar products index", productIds.size(), e);
+        }
+    }
+    
+    private static void load(Index index, List<Object[]> assignments) {
+        Map<Long, Long> categories = new HashMap<>();
+        Map<Long, List<Long>> values = new HashMap<>();
+        for (Object[] row : assignments) {
+            Long productId = (Long) row[0];
+            categories.put(productId, (Long) row[1]);
+            values.computeIfAbsent(productId, id -> new ArrayList<>()).add((Long) row[2]);
+        }
+        values.forEach((productId, valueIds) ->
+                index.put(productId, categories.get(productId), SortedLongSet.of(valueIds)));
+    }
+    
+    private static int[] signature(SortedLongSet values) {
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long value : values.toArray()) {
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int hash = (int) (mix(value ^ HASH_SEEDS[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+    
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+    
+    /**
+     * Signatures and LSH buckets of all indexed products. Lookups and updates are synchronized;
+     * both touch only a few dozen buckets.
+     */
+    private static class Index {
+        
+        private final Map<Long, Entry> entries = new HashMap<>();
+        // Band key (band number, category and the band's signature values) to product ids
+        private final Map<Long, Set<Long>> buckets = new HashMap<>();
+        
+        synchronized void put(Long productId, Long categoryId, SortedLongSet values) {
+            remove(productId);
+            if (categoryId == null || values.isEmpty()) {
+                return;
+            }
+            Entry entry = new Entry(categoryId, values, bandKeys(categoryId, signature(values)));
+            entries.put(productId, entry);
+            for (long bandKey : entry.bandKeys) {
+                buckets.computeIfAbsent(bandKey, key -> new HashSet<>()).add(productId);
+            }
+        }
+        
+        synchronized void remove(Long productId) {
+            Entry entry = entries.remove(productId);
+            if (entry == null) {
+                return;
+            }
+            for (long bandKey : entry.bandKeys) {
+                Set<Long> bucket = buckets.get(bandKey);
+                if (bucket != null) {
+                    bucket.remove(productId);
+                    if (bucket.isEmpty()) {
+                        buckets.remove(bandKey);
+                    }
+                }
+            }
+        }
+        
+        synchronized List<Map.Entry<Long, Double>> findSimilar(Long productId, int limit) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return List.of();
+            }
+            
+            Set<Long> candidates = new HashSet<>();
+            for (long bandKey : entry.bandKeys) {
+                candidates.addAll(buckets.getOrDefault(bandKey, Set.of()));
+            }
+            candidates.remove(productId);
+            
+            List<Map.Entry<Long, Double>> similar = new ArrayList<>();
+            for (Long candidateId : candidates) {
+                Entry candidate = entries.get(candidateId);
+                // Band keys include the category, so this only fails on hash collisions
+                if (candidate != null && candidate.categoryId.equals(entry.categoryId)) {
+                    int shared = entry.values.intersect(candidate.values).size();
+                    double jaccard = (double) shared / (entry.values.size() + candidate.values.size() - shared);
+                    similar.add(Map.entry(candidateId, jaccard));
+                }
+            }
+            similar.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            return similar.subList(0, Math.min(limit, similar.size()));
+        }
+        
+        synchronized int size() {
+            return entries.size();
+        }
+        
+        private static long[] bandKeys(long categoryId, int[] signature) {
+            long[] keys = new long[BANDS];
+            for (int band = 0; band < BANDS; band++) {
+                long key = mix(categoryId * 31 + band);
+                for (int row = 0; row < ROWS; row++) {
+                    key = mix(key ^ signature[band * ROWS + row]);
+                }
+                keys[band] = key;
+            }
+            return keys;
+        }
+    }
+    
+    private static class Entry {
+        
+        private final Long categoryId;
+        private final SortedLongSet values;
+        private final long[] bandKeys;
+        
+        Entry(Long categoryId, SortedLongSet values, long[] bandKeys) {
+            this.categoryId = categoryId;
+            this.values = values;
+            this.bandKeys = bandKeys;
+        }
+    }
+}
@@ -29,6 +29,9 @@ public class UserService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     private final SecureRandom secureRandom = new SecureRandom();
     
     public List<User> getAllUsers() {
@@ -146,6 +149,8 @@ public class UserService {
                 }
                 
                 user.setRole(role);
+                // Sessions pick up the new role on their next sign-in
+                refreshTokenService.revokeAll(user.getId());
                 return userRepository.save(user);
             }
             return null;
@@ -174,6 +179,7 @@ public class UserService {
                 }
                 
                 user.setEnabled(enabled);
+                refreshTokenService.revokeAll(user.getId());
                 return userRepository.save(user);
             }
             return null;
@@ -228,6 +234,7 @@ public class UserService {
                 user.setActivationDeadline(LocalDateTime.now().plusHours(48));
                 
                 userRepository.save(user);
+                refreshTokenService.revokeAll(user.getId());
                 
                 // Send activation email
                 try {
@@ -0,0 +1,142 @@
+package com.catalog.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Approximate most frequent keys of an unbounded stream, in constant memory: a count-min sketch
+ * ({@code depth} rows of {@code width} counters) estimates the count of every key seen, and a
+ * min-heap keeps the {@code capacity} keys with the highest estimates.
+ * <p>
+ * Estimates never undercount; they overcount by at most {@code e / width} of all keys added,
+ * except with probability {@code e^-depth}. Sketch updates are lock-free; only keys whose estimate
+ * reaches the smallest tracked count take the lock to update the heap, which after warm-up is
+ * mostly the frequent keys themselves.
+ */
+public final class HeavyHitters {
+    
+    private final int capacity;
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+    private final LongAdder total = new LongAdder();
+    
+    // Guarded by this
+    private final Map<String, Entry> tracked = new HashMap<>();
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.count));
+    // Smallest tracked count once the heap is full, so most keys skip the lock
+    private volatile long threshold;
+    
+    public HeavyHitters(int capacity, int depth, int width) {
+        if (capacity < 1 || depth < 1 || width < 1) {
+            throw new IllegalArgumentException("capacity, depth and width must be positive");
+        }
+        this.capacity = capacity;
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+    
+    public void add(String key) {
+        total.increment();
+        
+        // Row indexes from two hashes of the key (h1 + i * h2), as good as independent hashes here
+        int hash1 = mix(key.hashCode());
+        int hash2 = mix(hash1 ^ 0x5bd1e995) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = Math.floorMod(hash1 + row * hash2, width);
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        
+        if (estimate >= threshold) {
+            offer(key, estimate);
+        }
+    }
+    
+    private synchronized void offer(String key, long estimate) {
+        Entry entry = tracked.get(key);
+        if (entry != null) {
+            heap.remove(entry);
+            entry.count = Math.max(entry.count, estimate);
+            heap.add(entry);
+        } else if (tracked.size() < capacity) {
+            entry = new Entry(key, estimate);
+            tracked.put(key, entry);
+            heap.add(entry);
+        } else if (estimate > heap.peek().count) {
+            tracked.remove(heap.poll().key);
+            entry = new Entry(key, estimate);
+            tracked.put(key, entry);
+            heap.add(entry);
+        }
+        threshold = tracked.size() < capacity ? 0 : heap.peek().count;
+    }
+    
+    /**
+     * Up to {@code limit} of the tracked keys, most frequent first, as key and estimated count.
+     */
+    public synchronized List<Map<String, Object>> top(int limit) {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.count).reversed()
+                .thenComparing(entry -> entry.key));
+        
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Entry entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", entry.key);
+            item.put("count", entry.count);
+            result.add(item);
+        }
+        return result;
+    }
+    
+    public long getTotal() {
+        return total.sum();
+    }
+    
+    /**
+     * Upper bound of the overcount of any estimate, with probability {@code 1 - e^-depth}.
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E / width * total.sum());
+    }
+    
+    public synchronized void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        total.reset();
+        tracked.clear();
+        heap.clear();
+        threshold = 0;
+    }
+    
+    // Murmur3 finalizer: spreads String.hashCode, whose low bits are weak for short keys
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+    
+    private static class Entry {
+        
+        private final String key;
+        private long count;
+        
+        Entry(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.catalog.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer, after Dmitry Vyukov's bounded
+ * queue: each slot carries a sequence number telling producers whether it is free for their turn
+ * and the consumer whether it has been filled. A producer claims a slot with a single CAS on the
+ * tail and never waits; when the buffer is full {@link #offer} fails instead, so the caller decides
+ * what to do with the element.
+ * <p>
+ * {@link #drainTo} must only be called from one thread at a time.
+ */
+public class RingBuffer<T> {
+    
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only written by the consumer; volatile so size() can read it from any thread
+    private volatile long head;
+    
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Adds an element unless the buffer is full.
+     *
+     * @return whether it was added
+     */
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // The slot still holds the element from one lap ago
+                return false;
+            }
+            // Otherwise another producer claimed this position first; retry with the new tail
+        }
+    }
+    
+    /**
+     * Moves up to {@code max} elements, oldest first, into {@code target}.
+     *
+     * @return the number of elements moved
+     */
+    public int drainTo(List<? super T> target, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // Empty, or the producer that claimed this slot has not stored its element yet
+                break;
+            }
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            // Frees the slot for the producer one lap ahead
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+    
+    /**
+     * Number of elements claimed but not yet drained; approximate while producers are active.
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+    
+    public int capacity() {
+        return mask + 1;
+    }
+}
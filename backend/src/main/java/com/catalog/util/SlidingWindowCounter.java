@@ -0,0 +1,157 @@
+package com.catalog.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts events per key over a sliding window and tells whether a key has reached its limit. Each
+ * key keeps the counts of the current and the previous fixed window; the sliding count is the
+ * current count plus the previous one weighted by how much of the previous window still overlaps,
+ * which is exact for evenly spread events and never off by more than the previous window's count.
+ * <p>
+ * Keys are spread over lock stripes, each a small access-ordered map behind its own lock, so
+ * concurrent requests for different keys rarely contend and no global lock is ever taken. Each
+ * stripe holds at most its share of {@code maxKeys}; beyond that the least recently used keys are
+ * forgotten, which bounds memory when many distinct keys (e.g. addresses) show up.
+ */
+public class SlidingWindowCounter {
+    
+    private static final int STRIPES = 64;
+    
+    private final int limit;
+    private final long windowMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    
+    public SlidingWindowCounter(int limit, long windowMillis, int maxKeys) {
+        if (limit < 1 || windowMillis < 1) {
+            throw new IllegalArgumentException("Limit and window must be positive");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        int keysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+    
+    /**
+     * Milliseconds until {@code key} drops below the limit, or 0 if it is below it now.
+     */
+    public long retryAfter(String key, long now) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.get(key);
+            return window != null ? window.retryAfter(now) : 0;
+        }
+    }
+    
+    /**
+     * Counts an event for {@code key}.
+     */
+    public void record(String key, long now) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.windows.computeIfAbsent(key, k -> new Window(now)).record(now);
+        }
+    }
+    
+    /**
+     * Counts an event for {@code key} if it is below the limit.
+     *
+     * @return 0 if the event was counted, otherwise the milliseconds until it would be
+     */
+    public long tryRecord(String key, long now) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.computeIfAbsent(key, k -> new Window(now));
+            long retryAfter = window.retryAfter(now);
+            if (retryAfter == 0) {
+                window.record(now);
+            }
+            return retryAfter;
+        }
+    }
+    
+    public void reset(String key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.windows.remove(key);
+        }
+    }
+    
+    /**
+     * Number of keys tracked; locks each stripe in turn, so only for statistics.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.windows.size();
+            }
+        }
+        return size;
+    }
+    
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+    
+    private static class Stripe {
+        
+        private final Map<String, Window> windows;
+        
+        Stripe(int maxKeys) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+    
+    // Guarded by the lock of its stripe
+    private class Window {
+        
+        private long start;
+        private int current;
+        private int previous;
+        
+        Window(long now) {
+            this.start = now - now % windowMillis;
+        }
+        
+        void record(long now) {
+            roll(now);
+            current++;
+        }
+        
+        long retryAfter(long now) {
+            roll(now);
+            if (current >= limit) {
+                // Even with the previous window gone, the current one is at the limit
+                return start + windowMillis - now;
+            }
+            double overlap = 1.0 - (double) (now - start) / windowMillis;
+            if (current + previous * overlap < limit) {
+                return 0;
+            }
+            // The previous window's weight has to shrink until there is room for one more event
+            double overlapNeeded = (double) (limit - current) / previous;
+            long elapsedNeeded = (long) Math.ceil((1.0 - overlapNeeded) * windowMillis);
+            return Math.max(1, start + elapsedNeeded - now);
+        }
+        
+        private void roll(long now) {
+            long windowStart = now - now % windowMillis;
+            if (windowStart == start) {
+                return;
+            }
+            // One window later the current count becomes the previous one; any later, both are gone
+            previous = windowStart - start == windowMillis ? current : 0;
+            current = 0;
+            start = windowStart;
+        }
+    }
+}
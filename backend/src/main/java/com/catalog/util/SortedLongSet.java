@@ -0,0 +1,143 @@
+package com.catalog.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of {@code long}s kept as one sorted, duplicate-free {@code long[]}: eight bytes per
+ * id instead of a boxed {@code Long} plus a hash table node, {@code O(log n)} membership tests and
+ * intersections that gallop through the larger set, so intersecting a small set with a large one
+ * costs about {@code small * log(large / small)} comparisons.
+ */
+public final class SortedLongSet {
+    
+    public static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+    
+    private final long[] values;
+    
+    private SortedLongSet(long[] values) {
+        this.values = values;
+    }
+    
+    /**
+     * The distinct values of {@code values}, in any order; {@code null}s are skipped.
+     */
+    public static SortedLongSet of(Collection<Long> values) {
+        long[] array = new long[values.size()];
+        int size = 0;
+        boolean sorted = true;
+        for (Long value : values) {
+            if (value != null) {
+                if (size > 0 && value <= array[size - 1]) {
+                    sorted = false;
+                }
+                array[size++] = value;
+            }
+        }
+        return fromArray(array, size, sorted);
+    }
+    
+    /**
+     * The distinct values of {@code values}, in any order. The array is not copied when it is
+     * already sorted and duplicate-free, so the caller must not change it afterwards.
+     */
+    public static SortedLongSet of(long... values) {
+        boolean sorted = true;
+        for (int i = 1; i < values.length && sorted; i++) {
+            sorted = values[i - 1] < values[i];
+        }
+        return fromArray(values, values.length, sorted);
+    }
+    
+    private static SortedLongSet fromArray(long[] array, int size, boolean sortedAndDistinct) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        if (!sortedAndDistinct) {
+            Arrays.sort(array, 0, size);
+            int distinct = 1;
+            for (int i = 1; i < size; i++) {
+                if (array[i] != array[distinct - 1]) {
+                    array[distinct++] = array[i];
+                }
+            }
+            size = distinct;
+        }
+        return new SortedLongSet(size == array.length ? array : Arrays.copyOf(array, size));
+    }
+    
+    public int size() {
+        return values.length;
+    }
+    
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+    
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+    
+    /**
+     * The values in both sets. Walks the smaller set and, for each value, gallops ahead in the
+     * larger one (doubling steps, then a binary search within the last step).
+     */
+    public SortedLongSet intersect(SortedLongSet other) {
+        long[] small = values.length <= other.values.length ? values : other.values;
+        long[] large = small == values ? other.values : values;
+        if (small.length == 0) {
+            return EMPTY;
+        }
+        
+        long[] result = new long[small.length];
+        int size = 0;
+        int from = 0;
+        for (long value : small) {
+            // Smallest index >= from whose value is >= value
+            int step = 1;
+            int hi = from;
+            while (hi < large.length && large[hi] < value) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int position = Arrays.binarySearch(large, from, Math.min(hi + 1, large.length), value);
+            if (position >= 0) {
+                result[size++] = value;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        
+        if (size == 0) {
+            return EMPTY;
+        }
+        return new SortedLongSet(size == result.length ? result : Arrays.copyOf(result, size));
+    }
+    
+    /**
+     * A copy of the values, in ascending order.
+     */
+    public long[] toArray() {
+        return values.clone();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SortedLongSet && Arrays.equals(values, ((SortedLongSet) o).values);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,57 @@
+package com.catalog.benchmarks;
+
+import com.catalog.security.JwtUtils;
+import com.catalog.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and the per-request validation done by {@code AuthTokenFilter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    
+    private static final String SECRET =
+        "d6cff334cde82a9e3b09d5a1fa8919eb2aea4c2c2b149410258e4daf27130b21010ac17bcd64259be4961f6ee7fa10fa";
+    
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        Stubs.inject(jwtUtils, "jwtSecret", SECRET);
+        Stubs.inject(jwtUtils, "jwtExpirationMs", 86_400_000);
+        
+        UserPrincipal principal = new UserPrincipal(1L, "admin@catalog.com", "n/a", "Ada", "Admin",
+                                                    List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+    
+    @Benchmark
+    public String sign() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+    
+    /**
+     * Mirrors {@code AuthTokenFilter}: one parse, and the principal built from the claims.
+     */
+    @Benchmark
+    public UserPrincipal validate() {
+        Claims claims = jwtUtils.parseJwtToken(token);
+        return claims != null ? jwtUtils.getPrincipalFromClaims(claims) : null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.catalog.benchmarks;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductDto#calculateMargins()} BigDecimal math for one page of admin listing rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarginCalculationBenchmark {
+    
+    private static final int PAGE_SIZE = 1000;
+    
+    private ProductDto[] dtos;
+    
+    @Setup
+    public void setUp() {
+        List<Product> products = new SyntheticCatalog(PAGE_SIZE, 42).products;
+        dtos = new ProductDto[products.size()];
+        for (int i = 0; i < dtos.length; i++) {
+            Product product = products.get(i);
+            ProductDto dto = new ProductDto();
+            dto.setPrice(product.getPrice());
+            dto.setCostPrice(product.getCostPrice());
+            dtos[i] = dto;
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void calculateMargins(Blackhole blackhole) {
+        for (ProductDto dto : dtos) {
+            dto.calculateMargins();
+            blackhole.consume(dto.getMarginPercentage());
+        }
+    }
+}
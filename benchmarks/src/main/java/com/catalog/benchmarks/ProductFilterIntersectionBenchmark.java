@@ -0,0 +1,86 @@
+package com.catalog.benchmarks;
+
+import com.catalog.entity.Filter;
+import com.catalog.repository.FilterRepository;
+import com.catalog.repository.ProductFilterRepository;
+import com.catalog.service.ProductFilterService;
+import com.catalog.util.SortedLongSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductFilterService#findProductIdsByFilters} with the repositories answering from
+ * memory, so only the id intersection and its allocations are measured, and the listing's
+ * membership test of every catalog product against the result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductFilterIntersectionBenchmark {
+    
+    @Param({"10000", "200000"})
+    public int catalogSize;
+    
+    @Param({"2", "3"})
+    public int filterCount;
+    
+    @Param({"0.5"})
+    public double selectivity;
+    
+    private ProductFilterService productFilterService;
+    private Map<String, List<String>> request;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<String, Filter> filtersByName = new HashMap<>();
+        Map<Long, List<Long>> idsByFilter = new HashMap<>();
+        request = new LinkedHashMap<>();
+        
+        for (int i = 0; i < filterCount; i++) {
+            Filter filter = new Filter("filter_" + i, "Filter " + i, null);
+            filter.setId((long) i + 1);
+            filtersByName.put(filter.getName(), filter);
+            idsByFilter.put(filter.getId(), SyntheticCatalog.randomIdSubset(catalogSize, selectivity, random));
+            request.put(filter.getName(), List.of("value_a", "value_b"));
+        }
+        
+        FilterRepository filterRepository = Stubs.repository(FilterRepository.class, Map.of(
+            "findByName", args -> Optional.ofNullable(filtersByName.get((String) args[0]))));
+        ProductFilterRepository productFilterRepository = Stubs.repository(ProductFilterRepository.class, Map.of(
+            "findProductIdsByFilterAndValues", args -> new ArrayList<>(idsByFilter.get((Long) args[0]))));
+        
+        productFilterService = new ProductFilterService();
+        Stubs.inject(productFilterService, "filterRepository", filterRepository);
+        Stubs.inject(productFilterService, "productFilterRepository", productFilterRepository);
+    }
+    
+    @Benchmark
+    public SortedLongSet findProductIdsByFilters() {
+        return productFilterService.findProductIdsByFilters(request);
+    }
+    
+    // What ProductController does with the result: keep the listed products that matched
+    @Benchmark
+    public int filterCatalog() {
+        SortedLongSet matches = productFilterService.findProductIdsByFilters(request);
+        int kept = 0;
+        for (long id = 1; id <= catalogSize; id++) {
+            if (matches.contains(id)) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,58 @@
+package com.catalog.benchmarks;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.mapper.ProductImageMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson serialization of {@link ProductDto} lists, configured like Spring Boot's
+ * auto-configured {@link ObjectMapper}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductJsonBenchmark {
+    
+    @Param({"50", "1000"})
+    public int productCount;
+    
+    private ObjectMapper objectMapper;
+    private List<ProductDto> dtos;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        SyntheticCatalog catalog = new SyntheticCatalog(productCount, 42);
+        ProductImageMapper imageMapper = new ProductImageMapper();
+        dtos = new ArrayList<>(productCount);
+        catalog.products.forEach(product -> {
+            ProductDto dto = new ProductDto(product.getId(), product.getName(), product.getDescription(),
+                                            product.getPrice(), product.getCategory().getName(), product.getInStock(),
+                                            product.getCreatedAt(), product.getUpdatedAt());
+            dto.setFilterValues(catalog.productFilters.get(product.getId()).stream()
+                    .collect(Collectors.groupingBy(pf -> pf.getFilter().getName(),
+                             Collectors.mapping(pf -> pf.getFilterValue().getValue(), Collectors.toList()))));
+            dto.setImages(imageMapper.toDtoList(catalog.productImages.get(product.getId())));
+            if (!dto.getImages().isEmpty()) {
+                dto.setPrimaryImageUrl(dto.getImages().get(0).getImageUrl());
+            }
+            dtos.add(dto);
+        });
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
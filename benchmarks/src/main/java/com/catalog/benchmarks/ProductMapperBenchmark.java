@@ -0,0 +1,82 @@
+package com.catalog.benchmarks;
+
+import com.catalog.dto.ProductDto;
+import com.catalog.entity.ProductImage;
+import com.catalog.mapper.ProductImageMapper;
+import com.catalog.mapper.ProductMapper;
+import com.catalog.repository.ProductFilterRepository;
+import com.catalog.repository.ProductImageRepository;
+import com.catalog.service.ProductFilterService;
+import com.catalog.service.ProductImageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ProductMapper#toDtoList} over a synthetic page of products. Repository calls are
+ * answered from memory, so this isolates the mapping work the listing endpoints do per product.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+    
+    @Param({"50", "1000"})
+    public int productCount;
+    
+    private SyntheticCatalog catalog;
+    private ProductMapper productMapper;
+    
+    @Setup
+    public void setUp() {
+        catalog = new SyntheticCatalog(productCount, 42);
+        
+        ProductFilterRepository productFilterRepository = Stubs.repository(ProductFilterRepository.class, Map.of(
+            "findByProductId", args -> catalog.productFilters.getOrDefault((Long) args[0], List.of()),
+            "findFilterValuesByProductIds", args -> ids(args[0]).stream()
+                    .flatMap(id -> catalog.productFilters.getOrDefault(id, List.of()).stream())
+                    .map(pf -> new Object[] { pf.getProduct().getId(), pf.getFilter().getName(), pf.getFilterValue().getValue() })
+                    .collect(Collectors.toList())));
+        ProductImageRepository productImageRepository = Stubs.repository(ProductImageRepository.class, Map.of(
+            "findByProductIdOrderByDisplayOrderAscIdAsc", args -> catalog.productImages.getOrDefault((Long) args[0], List.of()),
+            "findByProductIds", args -> ids(args[0]).stream()
+                    .flatMap(id -> catalog.productImages.getOrDefault(id, List.of()).stream())
+                    .collect(Collectors.toList()),
+            "findPrimaryImageByProductId", args -> catalog.productImages.getOrDefault((Long) args[0], List.of()).stream()
+                    .filter(ProductImage::getIsPrimary)
+                    .findFirst()));
+        
+        ProductFilterService productFilterService = new ProductFilterService();
+        Stubs.inject(productFilterService, "productFilterRepository", productFilterRepository);
+        
+        ProductImageService productImageService = new ProductImageService();
+        Stubs.inject(productImageService, "productImageRepository", productImageRepository);
+        
+        productMapper = new ProductMapper();
+        Stubs.inject(productMapper, "productFilterService", productFilterService);
+        Stubs.inject(productMapper, "productImageService", productImageService);
+        Stubs.inject(productMapper, "productImageMapper", new ProductImageMapper());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Collection<Long> ids(Object arg) {
+        return (Collection<Long>) arg;
+    }
+    
+    @Benchmark
+    public List<ProductDto> toDtoList() {
+        return productMapper.toDtoList(catalog.products);
+    }
+    
+    @Benchmark
+    public List<ProductDto> toDtoListForAdmin() {
+        return productMapper.toDtoListForAdmin(catalog.products);
+    }
+}
@@ -0,0 +1,129 @@
+package com.catalog.benchmarks;
+
+import com.catalog.entity.Category;
+import com.catalog.entity.Filter;
+import com.catalog.entity.FilterValue;
+import com.catalog.entity.Product;
+import com.catalog.entity.ProductFilter;
+import com.catalog.entity.ProductImage;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic in-memory catalog used as benchmark input. The same seed always yields
+ * the same products, filter assignments and images, so runs are comparable.
+ */
+final class SyntheticCatalog {
+    
+    static final String[] CATEGORIES = {
+        "Pumps", "Valves", "Bearings", "Motors", "Sensors", "Fasteners", "Hoses", "Seals"
+    };
+    
+    private static final int FILTER_COUNT = 6;
+    private static final int VALUES_PER_FILTER = 8;
+    private static final int FILTERS_PER_PRODUCT = 4;
+    private static final int MAX_IMAGES_PER_PRODUCT = 5;
+    
+    private static final String DESCRIPTION =
+        "Heavy-duty industrial component rated for continuous operation in harsh environments. " +
+        "Corrosion resistant housing, precision machined internals and a sealed design keep " +
+        "maintenance intervals long. Supplied with mounting hardware and a full data sheet. ";
+    
+    final List<Category> categories = new ArrayList<>();
+    final List<Product> products = new ArrayList<>();
+    final List<Filter> filters = new ArrayList<>();
+    final Map<Long, List<ProductFilter>> productFilters = new HashMap<>();
+    final Map<Long, List<ProductImage>> productImages = new HashMap<>();
+    
+    SyntheticCatalog(int productCount, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+        
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            Category category = new Category(CATEGORIES[c], null);
+            category.setId((long) c + 1);
+            categories.add(category);
+        }
+        
+        long filterValueId = 1;
+        for (int f = 0; f < FILTER_COUNT; f++) {
+            Filter filter = new Filter("filter_" + f, "Filter " + f, null);
+            filter.setId((long) f + 1);
+            List<FilterValue> values = new ArrayList<>();
+            for (int v = 0; v < VALUES_PER_FILTER; v++) {
+                FilterValue value = new FilterValue("value_" + v, "Value " + v, filter);
+                value.setId(filterValueId++);
+                value.setDisplayOrder(v);
+                values.add(value);
+            }
+            filter.setFilterValues(values);
+            filters.add(filter);
+        }
+        
+        long productFilterId = 1;
+        long imageId = 1;
+        for (int i = 0; i < productCount; i++) {
+            long id = i + 1;
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            Product product = new Product("Product " + id, DESCRIPTION, price,
+                                          categories.get(random.nextInt(categories.size())));
+            product.setId(id);
+            product.setCostPrice(price.multiply(BigDecimal.valueOf(60 + random.nextInt(30)))
+                                      .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+            product.setInStock(random.nextInt(10) != 0);
+            product.setCreatedAt(now.minusMinutes(random.nextInt(500_000)));
+            product.setUpdatedAt(product.getCreatedAt());
+            products.add(product);
+            
+            List<Filter> shuffled = new ArrayList<>(filters);
+            Collections.shuffle(shuffled, random);
+            List<ProductFilter> assignments = new ArrayList<>(FILTERS_PER_PRODUCT);
+            for (Filter filter : shuffled.subList(0, FILTERS_PER_PRODUCT)) {
+                FilterValue value = filter.getFilterValues().get(random.nextInt(VALUES_PER_FILTER));
+                ProductFilter productFilter = new ProductFilter(product, filter, value);
+                productFilter.setId(productFilterId++);
+                assignments.add(productFilter);
+            }
+            productFilters.put(id, assignments);
+            
+            int imageCount = random.nextInt(MAX_IMAGES_PER_PRODUCT + 1);
+            List<ProductImage> images = new ArrayList<>(imageCount);
+            for (int n = 0; n < imageCount; n++) {
+                ProductImage image = new ProductImage(product, "/uploads/" + id + "-" + n + ".jpg", "photo-" + n + ".jpg");
+                image.setId(imageId++);
+                image.setDisplayOrder(n);
+                image.setIsPrimary(n == 0);
+                image.setAltText("Product " + id + " photo " + n);
+                image.setFileSize(150_000L + random.nextInt(500_000));
+                image.setContentType("image/jpeg");
+                image.setCreatedAt(now);
+                image.setUpdatedAt(now);
+                images.add(image);
+            }
+            productImages.put(id, images);
+        }
+    }
+    
+    /**
+     * Returns ids from {@code 1..catalogSize}, each kept with probability {@code selectivity},
+     * in no particular order, like the {@code SELECT DISTINCT} result it stands in for.
+     */
+    static List<Long> randomIdSubset(int catalogSize, double selectivity, Random random) {
+        List<Long> ids = new ArrayList<>((int) (catalogSize * selectivity) + 16);
+        for (long id = 1; id <= catalogSize; id++) {
+            if (random.nextDouble() < selectivity) {
+                ids.add(id);
+            }
+        }
+        Collections.shuffle(ids, random);
+        return ids;
+    }
+}
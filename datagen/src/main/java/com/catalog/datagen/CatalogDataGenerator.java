@@ -0,0 +1,454 @@
+package com.catalog.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Populates the catalog tables with a synthetic, reproducible data set: categories, filters with
+ * values, category-filter mappings, products with per-category filter fan-out, and product images.
+ * <p>
+ * Everything is written with JDBC batches on a single connection and committed once per batch, so
+ * millions of products load in minutes. The same settings and seed always produce the same rows.
+ * The schema must already exist (the application creates it through Hibernate).
+ */
+public class CatalogDataGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogDataGenerator.class);
+    
+    /** Tables in delete order (children first). */
+    private static final String[] CATALOG_TABLES = {
+        "product_images", "product_filters", "category_filters", "products", "filter_values", "filters", "categories"
+    };
+    
+    /**
+     * Tables the application writes about the catalog. They are emptied and checked with it, but keep
+     * their identities: the change log id is the change feed cursor, so it never goes back, and
+     * product stats are keyed by product id.
+     */
+    private static final String[] DERIVED_TABLES = {
+        "catalog_changes", "product_stats"
+    };
+    
+    /** Every table a reset empties, in delete order. */
+    private static final List<String> RESET_TABLES =
+            Stream.concat(Stream.of(DERIVED_TABLES), Stream.of(CATALOG_TABLES)).toList();
+    
+    private static final String[] ADJECTIVES = {
+        "Industrial", "Heavy-Duty", "Compact", "Stainless", "Precision", "High-Pressure", "Sealed", "Modular",
+        "Explosion-Proof", "Low-Noise", "Reinforced", "Galvanized", "Thermal", "Hydraulic", "Pneumatic", "Digital"
+    };
+    
+    private static final String[] NOUNS = {
+        "Pump", "Valve", "Bearing", "Motor", "Sensor", "Coupling", "Gearbox", "Hose", "Seal", "Filter Housing",
+        "Actuator", "Regulator", "Manifold", "Compressor", "Flange", "Controller", "Relay", "Switch", "Fan", "Clamp"
+    };
+    
+    private static final String[] SENTENCES = {
+        "Rated for continuous operation in harsh industrial environments.",
+        "Corrosion resistant housing with precision machined internals.",
+        "Sealed design keeps maintenance intervals long and downtime short.",
+        "Supplied with mounting hardware and a full technical data sheet.",
+        "Certified to international safety and quality standards.",
+        "Drop-in replacement for most common OEM part numbers.",
+        "Tested at the factory before shipping.",
+        "Suitable for food, chemical and general manufacturing applications."
+    };
+    
+    private final DataSource dataSource;
+    private final GeneratorSettings settings;
+    private final SplittableRandom random;
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 0, 0);
+    
+    public CatalogDataGenerator(DataSource dataSource, GeneratorSettings settings) {
+        this.dataSource = dataSource;
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.getSeed());
+    }
+    
+    // Naming scheme, shared with tools that need to build requests against the generated data
+    public static String categoryName(int index) {
+        return String.format("Category %03d", index);
+    }
+    
+    public static String filterName(int index) {
+        return String.format("attr_%03d", index);
+    }
+    
+    public static String valueName(int index) {
+        return String.format("v%02d", index);
+    }
+    
+    public Summary generate() throws SQLException {
+        logger.info("Generating catalog with {}", settings);
+        long started = System.nanoTime();
+        Summary summary = new Summary();
+        
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                prepareTables(connection);
+                
+                insertCategories(connection, summary);
+                insertFilters(connection, summary);
+                int[][] categoryFilters = insertCategoryFilters(connection, summary);
+                insertProducts(connection, categoryFilters, summary);
+                
+                restartIdentities(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        
+        summary.elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Catalog generated: {}", summary);
+        return summary;
+    }
+    
+    private void prepareTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (settings.isReset()) {
+                for (String table : RESET_TABLES) {
+                    statement.executeUpdate("DELETE FROM " + table);
+                }
+                connection.commit();
+                logger.info("Existing catalog rows deleted");
+                return;
+            }
+            
+            for (String table : RESET_TABLES) {
+                try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) {
+                        throw new IllegalStateException("Table " + table + " is not empty; " +
+                                                        "run with catalog.datagen.reset=true to replace the catalog");
+                    }
+                }
+            }
+        }
+    }
+    
+    private void insertCategories(Connection connection, Summary summary) throws SQLException {
+        String sql = "INSERT INTO categories (id, name, description, display_order, active, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            Timestamp created = Timestamp.valueOf(now.minusYears(3));
+            for (int c = 1; c <= settings.getCategories(); c++) {
+                ps.setLong(1, c);
+                ps.setString(2, categoryName(c));
+                ps.setString(3, "Generated category " + c);
+                ps.setInt(4, c);
+                ps.setBoolean(5, true);
+                ps.setTimestamp(6, created);
+                ps.setTimestamp(7, created);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        summary.categories = settings.getCategories();
+    }
+    
+    private void insertFilters(Connection connection, Summary summary) throws SQLException {
+        String filterSql = "INSERT INTO filters (id, name, display_name, description, display_order, active, created_at, updated_at) " +
+                           "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String valueSql = "INSERT INTO filter_values (id, filter_id, value, display_value, display_order, active, created_at, updated_at) " +
+                          "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp created = Timestamp.valueOf(now.minusYears(3));
+        
+        try (PreparedStatement filterPs = connection.prepareStatement(filterSql);
+             PreparedStatement valuePs = connection.prepareStatement(valueSql)) {
+            for (int f = 1; f <= settings.getFilters(); f++) {
+                filterPs.setLong(1, f);
+                filterPs.setString(2, filterName(f));
+                filterPs.setString(3, "Attribute " + f);
+                filterPs.setString(4, "Generated filter " + f);
+                filterPs.setInt(5, f);
+                filterPs.setBoolean(6, true);
+                filterPs.setTimestamp(7, created);
+                filterPs.setTimestamp(8, created);
+                filterPs.addBatch();
+                
+                for (int v = 1; v <= settings.getValuesPerFilter(); v++) {
+                    valuePs.setLong(1, filterValueId(f, v));
+                    valuePs.setLong(2, f);
+                    valuePs.setString(3, valueName(v));
+                    valuePs.setString(4, "Value " + v);
+                    valuePs.setInt(5, v);
+                    valuePs.setBoolean(6, true);
+                    valuePs.setTimestamp(7, created);
+                    valuePs.setTimestamp(8, created);
+                    valuePs.addBatch();
+                }
+            }
+            filterPs.executeBatch();
+            valuePs.executeBatch();
+        }
+        connection.commit();
+        summary.filters = settings.getFilters();
+        summary.filterValues = (long) settings.getFilters() * settings.getValuesPerFilter();
+    }
+    
+    /**
+     * Maps every category to a distinct set of filters. Low-numbered filters are picked more
+     * often, so a few attributes are shared by most categories, as in a real catalog.
+     *
+     * @return filter ids per category, indexed by category id
+     */
+    private int[][] insertCategoryFilters(Connection connection, Summary summary) throws SQLException {
+        int perCategory = Math.min(settings.getFiltersPerCategory(), settings.getFilters());
+        int[][] categoryFilters = new int[settings.getCategories() + 1][];
+        String sql = "INSERT INTO category_filters (id, category_id, filter_id, created_at) VALUES (?, ?, ?, ?)";
+        Timestamp created = Timestamp.valueOf(now.minusYears(3));
+        long id = 1;
+        
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int c = 1; c <= settings.getCategories(); c++) {
+                List<Integer> chosen = new ArrayList<>(perCategory);
+                while (chosen.size() < perCategory) {
+                    int filterId = 1 + skewed(settings.getFilters());
+                    if (!chosen.contains(filterId)) {
+                        chosen.add(filterId);
+                    }
+                }
+                categoryFilters[c] = chosen.stream().mapToInt(Integer::intValue).toArray();
+                
+                for (int filterId : categoryFilters[c]) {
+                    ps.setLong(1, id++);
+                    ps.setLong(2, c);
+                    ps.setLong(3, filterId);
+                    ps.setTimestamp(4, created);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        summary.categoryFilters = id - 1;
+        return categoryFilters;
+    }
+    
+    private void insertProducts(Connection connection, int[][] categoryFilters, Summary summary) throws SQLException {
+        String productSql = "INSERT INTO products (id, name, description, price, cost_price, category_id, in_stock, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String productFilterSql = "INSERT INTO product_filters (id, product_id, filter_id, filter_value_id, created_at) " +
+                                  "VALUES (?, ?, ?, ?, ?)";
+        String imageSql = "INSERT INTO product_images (id, product_id, image_url, original_filename, alt_text, display_order, " +
+                          "is_primary, file_size, content_type, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        long productFilterId = 1;
+        long imageId = 1;
+        int valuesPerFilter = settings.getValuesPerFilter();
+        
+        try (PreparedStatement productPs = connection.prepareStatement(productSql);
+             PreparedStatement productFilterPs = connection.prepareStatement(productFilterSql);
+             PreparedStatement imagePs = connection.prepareStatement(imageSql)) {
+            
+            for (int p = 1; p <= settings.getProducts(); p++) {
+                int category = 1 + skewed(settings.getCategories());
+                LocalDateTime createdAt = now.minusSeconds(random.nextLong(2L * 365 * 24 * 3600));
+                LocalDateTime updatedAt = createdAt.plusSeconds(random.nextLong(30L * 24 * 3600));
+                BigDecimal price = randomPrice();
+                
+                productPs.setLong(1, p);
+                productPs.setString(2, productName(p));
+                productPs.setString(3, description());
+                productPs.setBigDecimal(4, price);
+                productPs.setBigDecimal(5, price.multiply(BigDecimal.valueOf(55 + random.nextInt(35)))
+                                                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+                productPs.setLong(6, category);
+                productPs.setBoolean(7, random.nextInt(100) < 92);
+                productPs.setTimestamp(8, Timestamp.valueOf(createdAt));
+                productPs.setTimestamp(9, Timestamp.valueOf(updatedAt));
+                productPs.addBatch();
+                
+                // Most category attributes are filled in; some are multi-valued
+                for (int filterId : categoryFilters[category]) {
+                    if (random.nextInt(100) >= 85) {
+                        continue;
+                    }
+                    int value = 1 + skewed(valuesPerFilter);
+                    productFilterPs.setLong(1, productFilterId++);
+                    productFilterPs.setLong(2, p);
+                    productFilterPs.setLong(3, filterId);
+                    productFilterPs.setLong(4, filterValueId(filterId, value));
+                    productFilterPs.setTimestamp(5, Timestamp.valueOf(createdAt));
+                    productFilterPs.addBatch();
+                    
+                    if (valuesPerFilter > 1 && random.nextInt(100) < 10) {
+                        int second = 1 + (value % valuesPerFilter);
+                        productFilterPs.setLong(1, productFilterId++);
+                        productFilterPs.setLong(2, p);
+                        productFilterPs.setLong(3, filterId);
+                        productFilterPs.setLong(4, filterValueId(filterId, second));
+                        productFilterPs.setTimestamp(5, Timestamp.valueOf(createdAt));
+                        productFilterPs.addBatch();
+                    }
+                }
+                
+                int images = random.nextInt(settings.getMaxImagesPerProduct() + 1);
+                for (int n = 0; n < images; n++) {
+                    imagePs.setLong(1, imageId++);
+                    imagePs.setLong(2, p);
+                    imagePs.setString(3, "/uploads/generated/" + p + "-" + n + ".jpg");
+                    imagePs.setString(4, "product-" + p + "-" + n + ".jpg");
+                    imagePs.setString(5, productName(p) + " photo " + (n + 1));
+                    imagePs.setInt(6, n);
+                    imagePs.setBoolean(7, n == 0);
+                    imagePs.setLong(8, 50_000L + random.nextInt(1_500_000));
+                    imagePs.setString(9, "image/jpeg");
+                    imagePs.setTimestamp(10, Timestamp.valueOf(createdAt));
+                    imagePs.setTimestamp(11, Timestamp.valueOf(createdAt));
+                    imagePs.addBatch();
+                }
+                
+                if (p % settings.getBatchSize() == 0 || p == settings.getProducts()) {
+                    productPs.executeBatch();
+                    productFilterPs.executeBatch();
+                    imagePs.executeBatch();
+                    connection.commit();
+                    
+                    if (p % 100_000 == 0) {
+                        logger.info("{} / {} products written", p, settings.getProducts());
+                    }
+                }
+            }
+        }
+        
+        summary.products = settings.getProducts();
+        summary.productFilters = productFilterId - 1;
+        summary.productImages = imageId - 1;
+    }
+    
+    /**
+     * Explicit ids do not move H2's identity generators, so the application's own inserts would
+     * collide with generated rows. MySQL advances AUTO_INCREMENT by itself.
+     */
+    private void restartIdentities(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (!"H2".equalsIgnoreCase(product)) {
+            return;
+        }
+        
+        try (Statement statement = connection.createStatement()) {
+            for (String table : CATALOG_TABLES) {
+                long next;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    next = rs.getLong(1);
+                }
+                statement.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+    
+    private long filterValueId(int filterId, int valueIndex) {
+        return (long) (filterId - 1) * settings.getValuesPerFilter() + valueIndex;
+    }
+    
+    /**
+     * Index in {@code [0, n)} biased towards 0, giving a long-tailed popularity distribution.
+     */
+    private int skewed(int n) {
+        double r = random.nextDouble();
+        return (int) (n * r * r);
+    }
+    
+    private BigDecimal randomPrice() {
+        // Log-normal-ish: median around 55, long tail into the thousands
+        double value = 5 + Math.exp(4 + random.nextDouble() * 2.5 - 1.25 + random.nextDouble() - 0.5);
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    private String productName(int id) {
+        // Derived from the id alone so names stay stable regardless of generation order
+        return ADJECTIVES[Math.floorMod(id * 31, ADJECTIVES.length)] + " " +
+               NOUNS[Math.floorMod(id * 17 + id / ADJECTIVES.length, NOUNS.length)] + " " +
+               String.format("%c%c-%d", 'A' + id % 26, 'A' + (id / 26) % 26, 100 + id % 9000);
+    }
+    
+    private String description() {
+        StringBuilder description = new StringBuilder();
+        int sentences = 2 + random.nextInt(4);
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(SENTENCES[random.nextInt(SENTENCES.length)]);
+        }
+        return description.toString();
+    }
+    
+    /**
+     * Row counts written by one {@link #generate()} run.
+     */
+    public static class Summary {
+        
+        private long categories;
+        private long filters;
+        private long filterValues;
+        private long categoryFilters;
+        private long products;
+        private long productFilters;
+        private long productImages;
+        private long elapsedMillis;
+        
+        public long getCategories() {
+            return categories;
+        }
+        
+        public long getFilters() {
+            return filters;
+        }
+        
+        public long getFilterValues() {
+            return filterValues;
+        }
+        
+        public long getCategoryFilters() {
+            return categoryFilters;
+        }
+        
+        public long getProducts() {
+            return products;
+        }
+        
+        public long getProductFilters() {
+            return productFilters;
+        }
+        
+        public long getProductImages() {
+            return productImages;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        @Override
+        public String toString() {
+            return categories + " categories, " + filters + " filters, " + filterValues + " filter values, " +
+                   categoryFilters + " category filters, " + products + " products, " + productFilters +
+                   " product filters, " + productImages + " images in " + elapsedMillis + " ms";
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.catalog.datagen;
+
+import com.catalog.CatalogApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+
+/**
+ * Boots the catalog application (web server on a random port) so Hibernate creates or updates the
+ * schema on the target database, then fills it with {@link CatalogDataGenerator} and shuts down.
+ * <p>
+ * Defaults to an embedded H2 file in MySQL mode ({@code application-datagen.properties}). Any
+ * property can be overridden on the command line, for example:
+ * <pre>
+ * java -jar catalog-datagen-1.0.0.jar --catalog.datagen.products=1000000 --catalog.datagen.reset=true
+ * java -jar catalog-datagen-1.0.0.jar --spring.datasource.url=jdbc:mysql://localhost:3306/catalog_db?rewriteBatchedStatements=true \
+ *     --spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver --spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect
+ * </pre>
+ */
+public class DataGeneratorApplication {
+    
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(CatalogApplication.class);
+        application.setAdditionalProfiles("datagen");
+        
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            GeneratorSettings settings = GeneratorSettings.from(context.getEnvironment());
+            new CatalogDataGenerator(context.getBean(DataSource.class), settings).generate();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.catalog.datagen;
+
+import com.catalog.CatalogApplication;
+import com.catalog.entity.User;
+import com.catalog.repository.UserRepository;
+import com.catalog.service.CatalogVersionService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A throwaway catalog application for performance tooling: boots the real application on an
+ * in-memory H2 database and a random port, fills it with {@link CatalogDataGenerator} and creates
+ * one activated owner account. Uploads go to a temporary directory that is removed on close.
+ * <p>
+ * Each instance gets its own database, so several can run side by side in one JVM. Optionally it
+ * also gets in-memory read replicas: these are plain copies of the primary, brought up to date only
+ * when {@link #replicate()} is called, which makes replica lag easy to stage.
+ */
+public class EmbeddedCatalog implements AutoCloseable {
+    
+    public static final String OWNER_EMAIL = "owner@catalog.test";
+    public static final String OWNER_PASSWORD = "owner-password";
+    
+    private static final String H2_OPTIONS = ";DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE";
+    
+    private static final AtomicInteger instances = new AtomicInteger();
+    
+    private final ConfigurableApplicationContext context;
+    private final Path uploadDirectory;
+    private final CatalogDataGenerator.Summary summary;
+    private final List<String> replicaUrls;
+    
+    private EmbeddedCatalog(ConfigurableApplicationContext context, Path uploadDirectory,
+                            CatalogDataGenerator.Summary summary, List<String> replicaUrls) {
+        this.context = context;
+        this.uploadDirectory = uploadDirectory;
+        this.summary = summary;
+        this.replicaUrls = replicaUrls;
+    }
+    
+    /**
+     * Starts the application and generates the catalog.
+     *
+     * @param products number of products to generate (the rest of the shape comes from
+     *                 {@code application-datagen.properties} unless overridden)
+     * @param args     extra application arguments, e.g. {@code --catalog.query-count.enabled=true}
+     */
+    public static EmbeddedCatalog start(int products, String... args) throws Exception {
+        return start(products, 0, args);
+    }
+    
+    /**
+     * Starts the application with replica routing over the given number of in-memory replicas,
+     * which start out as copies of the generated catalog.
+     *
+     * @param replicas number of replicas; {@code 0} starts without replica routing
+     * @param args     extra application arguments, e.g. {@code --catalog.replica.sticky-ms=2000}
+     */
+    public static EmbeddedCatalog start(int products, int replicas, String... args) throws Exception {
+        String database = "catalog-" + instances.incrementAndGet();
+        Path uploadDirectory = Files.createTempDirectory(database + "-uploads");
+        
+        List<String> replicaUrls = new ArrayList<>();
+        for (int i = 1; i <= replicas; i++) {
+            replicaUrls.add("jdbc:h2:mem:" + database + "-replica-" + i + H2_OPTIONS);
+        }
+        
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--spring.datasource.url=jdbc:h2:mem:" + database + H2_OPTIONS);
+        if (replicas > 0) {
+            // Replicas are independent databases, so there is no replicated heartbeat to measure
+            arguments.add("--catalog.replica.enabled=true");
+            arguments.add("--catalog.replica.urls=" + String.join(",", replicaUrls));
+            arguments.add("--catalog.replica.lag-check=none");
+        }
+        arguments.add("--catalog.datagen.products=" + products);
+        arguments.add("--catalog.image.upload.path=" + uploadDirectory.resolve("products") + "/");
+        arguments.add("--catalog.user.upload.path=" + uploadDirectory.resolve("users") + "/");
+        arguments.add("--catalog.mapped-snapshot.path=" + uploadDirectory.resolve("catalog.bin"));
+        arguments.add("--logging.level.com.catalog=WARN");
+        arguments.addAll(List.of(args));
+        
+        SpringApplication application = new SpringApplication(CatalogApplication.class);
+        application.setAdditionalProfiles("datagen");
+        ConfigurableApplicationContext context = application.run(arguments.toArray(new String[0]));
+        
+        try {
+            GeneratorSettings settings = GeneratorSettings.from(context.getEnvironment());
+            CatalogDataGenerator.Summary summary =
+                    new CatalogDataGenerator(context.getBean(DataSource.class), settings).generate();
+            createOwner(context);
+            EmbeddedCatalog catalog = new EmbeddedCatalog(context, uploadDirectory, summary, replicaUrls);
+            catalog.replicate();
+            // The generator writes over JDBC, so caches and snapshots have not heard about it
+            context.getBean(CatalogVersionService.class).catalogChanged(CatalogVersionService.CATALOG, null);
+            return catalog;
+        } catch (Exception e) {
+            context.close();
+            FileSystemUtils.deleteRecursively(uploadDirectory);
+            throw e;
+        }
+    }
+    
+    private static void createOwner(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        
+        User owner = new User(OWNER_EMAIL, passwordEncoder.encode(OWNER_PASSWORD), "Catalog", "Owner");
+        owner.setRole(User.Role.OWNER);
+        owner.setAccountActivated(true);
+        owner.setIsTemporaryPassword(false);
+        userRepository.save(owner);
+    }
+    
+    /**
+     * Copies the primary database over every replica, as if replication had caught up.
+     */
+    public void replicate() throws Exception {
+        if (replicaUrls.isEmpty()) {
+            return;
+        }
+        
+        Path script = Files.createTempFile(uploadDirectory, "replica", ".sql");
+        try {
+            try (Connection primary = context.getBean("primaryDataSource", DataSource.class).getConnection();
+                 PreparedStatement statement = primary.prepareStatement("SCRIPT TO ?")) {
+                statement.setString(1, script.toString());
+                statement.execute();
+            }
+            for (String url : replicaUrls) {
+                try (Connection replica = DriverManager.getConnection(url, "sa", "");
+                     Statement statement = replica.createStatement()) {
+                    statement.execute("DROP ALL OBJECTS");
+                    statement.execute("RUNSCRIPT FROM '" + script + "'");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+    
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+    
+    public CatalogDataGenerator.Summary getSummary() {
+        return summary;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDirectory);
+    }
+}
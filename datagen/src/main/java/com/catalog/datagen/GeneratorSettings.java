@@ -0,0 +1,115 @@
+package com.catalog.datagen;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Shape of the generated catalog. Bound from {@code catalog.datagen.*} properties, or set
+ * directly when the generator is driven from code.
+ */
+public class GeneratorSettings {
+    
+    private long seed = 42;
+    private int categories = 40;
+    private int filters = 60;
+    private int valuesPerFilter = 12;
+    private int filtersPerCategory = 8;
+    private int products = 100_000;
+    private int maxImagesPerProduct = 5;
+    private int batchSize = 1000;
+    private boolean reset = false;
+    
+    public static GeneratorSettings from(Environment environment) {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setSeed(environment.getProperty("catalog.datagen.seed", Long.class, settings.getSeed()));
+        settings.setCategories(environment.getProperty("catalog.datagen.categories", Integer.class, settings.getCategories()));
+        settings.setFilters(environment.getProperty("catalog.datagen.filters", Integer.class, settings.getFilters()));
+        settings.setValuesPerFilter(environment.getProperty("catalog.datagen.values-per-filter", Integer.class, settings.getValuesPerFilter()));
+        settings.setFiltersPerCategory(environment.getProperty("catalog.datagen.filters-per-category", Integer.class, settings.getFiltersPerCategory()));
+        settings.setProducts(environment.getProperty("catalog.datagen.products", Integer.class, settings.getProducts()));
+        settings.setMaxImagesPerProduct(environment.getProperty("catalog.datagen.max-images-per-product", Integer.class, settings.getMaxImagesPerProduct()));
+        settings.setBatchSize(environment.getProperty("catalog.datagen.batch-size", Integer.class, settings.getBatchSize()));
+        settings.setReset(environment.getProperty("catalog.datagen.reset", Boolean.class, settings.isReset()));
+        return settings;
+    }
+    
+    // Getters and Setters
+    public long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    public int getCategories() {
+        return categories;
+    }
+    
+    public void setCategories(int categories) {
+        this.categories = categories;
+    }
+    
+    public int getFilters() {
+        return filters;
+    }
+    
+    public void setFilters(int filters) {
+        this.filters = filters;
+    }
+    
+    public int getValuesPerFilter() {
+        return valuesPerFilter;
+    }
+    
+    public void setValuesPerFilter(int valuesPerFilter) {
+        this.valuesPerFilter = valuesPerFilter;
+    }
+    
+    public int getFiltersPerCategory() {
+        return filtersPerCategory;
+    }
+    
+    public void setFiltersPerCategory(int filtersPerCategory) {
+        this.filtersPerCategory = filtersPerCategory;
+    }
+    
+    public int getProducts() {
+        return products;
+    }
+    
+    public void setProducts(int products) {
+        this.products = products;
+    }
+    
+    public int getMaxImagesPerProduct() {
+        return maxImagesPerProduct;
+    }
+    
+    public void setMaxImagesPerProduct(int maxImagesPerProduct) {
+        this.maxImagesPerProduct = maxImagesPerProduct;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public boolean isReset() {
+        return reset;
+    }
+    
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+    
+    @Override
+    public String toString() {
+        return "GeneratorSettings{seed=" + seed + ", categories=" + categories + ", filters=" + filters +
+               ", valuesPerFilter=" + valuesPerFilter + ", filtersPerCategory=" + filtersPerCategory +
+               ", products=" + products + ", maxImagesPerProduct=" + maxImagesPerProduct +
+               ", batchSize=" + batchSize + ", reset=" + reset + "}";
+    }
+}
@@ -0,0 +1,249 @@
+package com.catalog.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link Workload} with a fixed number of closed-loop workers: each worker issues one
+ * operation at a time and waits for it to finish before starting the next.
+ * <p>
+ * With a target rate, each worker follows a fixed schedule of intended start times and latency is
+ * measured from the intended start, not from when the request actually went out. A slow response
+ * therefore also charges the requests it delayed, which is the coordinated-omission correction; the
+ * uncorrected service time is kept alongside for comparison. Scheduled starts that could not be
+ * issued before the step ended are counted as missed and enter the corrected latency with the time
+ * they had waited when it ended. Without a target rate the workers run flat
+ * out, which measures the closed-loop ceiling.
+ */
+public class LoadRunner {
+    
+    // Histograms record microseconds, up to ten minutes, with three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final Workload workload;
+    private final int workers;
+    private final long seed;
+    
+    public LoadRunner(Workload workload, int workers, long seed) {
+        this.workload = workload;
+        this.workers = workers;
+        this.seed = seed;
+    }
+    
+    /**
+     * Runs one step.
+     *
+     * @param targetRate operations per second across all workers, or 0 to run unpaced
+     * @param seconds    step length
+     */
+    public StepResult run(double targetRate, int seconds) throws InterruptedException {
+        long intervalNanos = targetRate > 0 ? (long) (workers * 1_000_000_000L / targetRate) : 0;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Worker> running = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            // Stagger the schedules so paced workers do not fire in lockstep
+            Worker worker = new Worker(root.split(), start + intervalNanos * i / workers, intervalNanos, end);
+            Thread thread = new Thread(worker, "load-worker-" + i);
+            worker.thread = thread;
+            running.add(worker);
+            thread.start();
+        }
+        
+        StepResult result = new StepResult(targetRate, workload.getOperationNames());
+        long lastDone = start;
+        for (Worker worker : running) {
+            worker.thread.join();
+            result.merge(worker);
+            lastDone = Math.max(lastDone, worker.lastDone);
+        }
+        result.elapsedNanos = Math.max(lastDone, end) - start;
+        return result;
+    }
+    
+    private class Worker implements Runnable {
+        
+        private final SplittableRandom random;
+        private final long intervalNanos;
+        private final long end;
+        private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+        private long next;
+        private long missed;
+        private long lastDone;
+        private Thread thread;
+        
+        Worker(SplittableRandom random, long firstStart, long intervalNanos, long end) {
+            this.random = random;
+            this.next = firstStart;
+            this.intervalNanos = intervalNanos;
+            this.end = end;
+            for (String operation : workload.getOperationNames()) {
+                stats.put(operation, new OperationStats());
+            }
+        }
+        
+        @Override
+        public void run() {
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= end) {
+                    break;
+                }
+                
+                long intended;
+                if (intervalNanos > 0) {
+                    intended = next;
+                    if (intended >= end) {
+                        break;
+                    }
+                    while (now < intended) {
+                        LockSupport.parkNanos(intended - now);
+                        now = System.nanoTime();
+                    }
+                    next += intervalNanos;
+                } else {
+                    intended = now;
+                }
+                
+                String operation = workload.pick(random);
+                boolean ok = workload.execute(operation, random);
+                long done = System.nanoTime();
+                
+                stats.get(operation).record(done - intended, done - now, ok);
+                lastDone = done;
+            }
+            
+            if (intervalNanos > 0) {
+                // Starts still due when the step ended never went out. Each is charged the time it had
+                // waited by then, the values recordValueWithExpectedInterval would back-fill, but
+                // spread over the operations the workload would have picked
+                long stopped = Math.max(System.nanoTime(), end);
+                for (long slot = next; slot < end; slot += intervalNanos) {
+                    stats.get(workload.pick(random)).recordMissed(stopped - slot);
+                    missed++;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Latency and error counts for one operation (or all of them).
+     */
+    public static class OperationStats {
+        
+        private final Histogram corrected = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram serviceTime = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private long errors;
+        
+        void record(long correctedNanos, long serviceNanos, boolean ok) {
+            corrected.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(correctedNanos)));
+            serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+            if (!ok) {
+                errors++;
+            }
+        }
+        
+        /**
+         * A scheduled start that never went out: counts towards corrected latency only.
+         */
+        void recordMissed(long waitedNanos) {
+            corrected.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(waitedNanos)));
+        }
+        
+        void add(OperationStats other) {
+            corrected.add(other.corrected);
+            serviceTime.add(other.serviceTime);
+            errors += other.errors;
+        }
+        
+        /**
+         * Completed operations; missed starts are not included.
+         */
+        public long getCount() {
+            return serviceTime.getTotalCount();
+        }
+        
+        public long getErrors() {
+            return errors;
+        }
+        
+        /**
+         * Coordinated-omission corrected latency at the given percentile, in milliseconds.
+         */
+        public double latencyMillis(double percentile) {
+            return corrected.getValueAtPercentile(percentile) / 1000.0;
+        }
+        
+        /**
+         * Uncorrected service time at the given percentile, in milliseconds.
+         */
+        public double serviceTimeMillis(double percentile) {
+            return serviceTime.getValueAtPercentile(percentile) / 1000.0;
+        }
+        
+        public double maxMillis() {
+            return corrected.getMaxValue() / 1000.0;
+        }
+    }
+    
+    /**
+     * Outcome of one step, per operation and overall.
+     */
+    public static class StepResult {
+        
+        private final double targetRate;
+        private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+        private final OperationStats total = new OperationStats();
+        private long missed;
+        private long elapsedNanos;
+        
+        StepResult(double targetRate, String[] operationNames) {
+            this.targetRate = targetRate;
+            for (String operation : operationNames) {
+                operations.put(operation, new OperationStats());
+            }
+        }
+        
+        void merge(Worker worker) {
+            worker.stats.forEach((operation, stats) -> {
+                operations.get(operation).add(stats);
+                total.add(stats);
+            });
+            missed += worker.missed;
+        }
+        
+        public double getTargetRate() {
+            return targetRate;
+        }
+        
+        public Map<String, OperationStats> getOperations() {
+            return operations;
+        }
+        
+        public OperationStats getTotal() {
+            return total;
+        }
+        
+        public long getMissed() {
+            return missed;
+        }
+        
+        public double getThroughput() {
+            return total.getCount() * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        public double getErrorRate() {
+            return total.getCount() == 0 ? 0 : (double) total.getErrors() / total.getCount();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.catalog.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test configuration, bound from {@code catalog.loadtest.*} properties.
+ */
+public class LoadSettings {
+    
+    private int products = 100_000;
+    private int workers = 32;
+    private int warmupSeconds = 15;
+    private int stepSeconds = 30;
+    private List<Double> rates = new ArrayList<>();
+    private double p99SloMillis = 500;
+    private long seed = 7;
+    private Map<String, Integer> mix = parseMix("browse:30,filter:20,search:15,detail:20,images:10,admin-edit:3,login:2");
+    
+    public static LoadSettings from(Environment environment) {
+        LoadSettings settings = new LoadSettings();
+        settings.setProducts(environment.getProperty("catalog.loadtest.products", Integer.class, settings.getProducts()));
+        settings.setWorkers(environment.getProperty("catalog.loadtest.workers", Integer.class, settings.getWorkers()));
+        settings.setWarmupSeconds(environment.getProperty("catalog.loadtest.warmup-seconds", Integer.class, settings.getWarmupSeconds()));
+        settings.setStepSeconds(environment.getProperty("catalog.loadtest.step-seconds", Integer.class, settings.getStepSeconds()));
+        settings.setP99SloMillis(environment.getProperty("catalog.loadtest.p99-slo-ms", Double.class, settings.getP99SloMillis()));
+        settings.setSeed(environment.getProperty("catalog.loadtest.seed", Long.class, settings.getSeed()));
+        
+        String rates = environment.getProperty("catalog.loadtest.rates");
+        if (rates != null && !rates.isBlank()) {
+            List<Double> parsed = new ArrayList<>();
+            for (String rate : rates.split(",")) {
+                parsed.add(Double.parseDouble(rate.trim()));
+            }
+            settings.setRates(parsed);
+        }
+        
+        String mix = environment.getProperty("catalog.loadtest.mix");
+        if (mix != null && !mix.isBlank()) {
+            settings.setMix(parseMix(mix));
+        }
+        return settings;
+    }
+    
+    /**
+     * Parses {@code operation:weight} pairs, e.g. {@code browse:30,detail:20}.
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation:weight");
+            }
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+    
+    // Getters and Setters
+    public int getProducts() {
+        return products;
+    }
+    
+    public void setProducts(int products) {
+        this.products = products;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+    
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+    
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+    
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+    
+    public void setStepSeconds(int stepSeconds) {
+        this.stepSeconds = stepSeconds;
+    }
+    
+    public List<Double> getRates() {
+        return rates;
+    }
+    
+    public void setRates(List<Double> rates) {
+        this.rates = rates;
+    }
+    
+    public double getP99SloMillis() {
+        return p99SloMillis;
+    }
+    
+    public void setP99SloMillis(double p99SloMillis) {
+        this.p99SloMillis = p99SloMillis;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+    
+    public void setMix(Map<String, Integer> mix) {
+        this.mix = mix;
+    }
+    
+    @Override
+    public String toString() {
+        return "workers=" + workers + ", warmup=" + warmupSeconds + "s, step=" + stepSeconds + "s"
+                + ", rates=" + (rates.isEmpty() ? "auto" : rates) + ", p99 SLO=" + p99SloMillis + "ms, mix=" + mix;
+    }
+}
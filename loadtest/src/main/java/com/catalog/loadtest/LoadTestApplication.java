@@ -0,0 +1,127 @@
+package com.catalog.loadtest;
+
+import com.catalog.datagen.EmbeddedCatalog;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the saturation point of the catalog API on this machine. Boots the application on an
+ * {@link EmbeddedCatalog} seeded with a large generated catalog, warms it up with unpaced workers
+ * (which also measures the closed-loop ceiling), then runs paced steps at fractions of that ceiling
+ * (or at {@code catalog.loadtest.rates}) and reports throughput and corrected p50/p99/p99.9 latency
+ * per operation.
+ * <p>
+ * The saturation point is the highest step that kept up with its target rate (95% or better, no
+ * more than 1% errors) within the p99 SLO. The generator shares the JVM and cores with the server;
+ * pin both with {@code taskset} and {@code -XX:ActiveProcessorCount} to test a given core count.
+ * <pre>
+ * java -XX:ActiveProcessorCount=4 -jar catalog-loadtest-1.0.0.jar --catalog.loadtest.products=200000 --catalog.loadtest.workers=64
+ * </pre>
+ */
+public class LoadTestApplication {
+    
+    private static final double[] AUTO_STEPS = {0.25, 0.5, 0.75, 0.9, 1.0, 1.1};
+    private static final double KEPT_UP = 0.95;
+    private static final double MAX_ERROR_RATE = 0.01;
+    
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        LoadSettings settings = LoadSettings.from(environment);
+        
+        // Every simulated user signs in from this one address; the bounded password check stays on
+        List<String> catalogArgs = new ArrayList<>();
+        catalogArgs.add("--catalog.auth.throttle.enabled=false");
+        // The workload keeps the access token of its first sign-in for the whole run
+        catalogArgs.add("--catalog.app.jwtExpirationMs=86400000");
+        catalogArgs.addAll(List.of(args));
+        
+        try (EmbeddedCatalog catalog = EmbeddedCatalog.start(settings.getProducts(), catalogArgs.toArray(new String[0]))) {
+            System.out.printf("%nCatalog: %s%n", catalog.getSummary());
+            System.out.printf("Load: %s, %d available processors%n", settings, Runtime.getRuntime().availableProcessors());
+            
+            Workload workload = new Workload(catalog.getBaseUrl(), settings.getProducts(), settings.getMix());
+            workload.prepare();
+            LoadRunner runner = new LoadRunner(workload, settings.getWorkers(), settings.getSeed());
+            
+            LoadRunner.StepResult warmup = runner.run(0, settings.getWarmupSeconds());
+            System.out.printf("%nWarm-up (unpaced): %.0f ops/s closed-loop ceiling%n", warmup.getThroughput());
+            print(warmup);
+            
+            List<Double> rates = settings.getRates();
+            if (rates.isEmpty()) {
+                rates = new ArrayList<>();
+                for (double fraction : AUTO_STEPS) {
+                    rates.add((double) Math.max(1, Math.round(warmup.getThroughput() * fraction)));
+                }
+            }
+            
+            List<LoadRunner.StepResult> steps = new ArrayList<>();
+            for (double rate : rates) {
+                LoadRunner.StepResult step = runner.run(rate, settings.getStepSeconds());
+                steps.add(step);
+                System.out.printf("%nStep: target %.0f ops/s, achieved %.0f ops/s, %d missed starts%n",
+                        rate, step.getThroughput(), step.getMissed());
+                print(step);
+            }
+            
+            summarize(steps, settings.getP99SloMillis());
+        }
+    }
+    
+    private static void print(LoadRunner.StepResult step) {
+        System.out.printf("%-12s %8s %7s %9s %9s %9s %9s %9s %12s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "p99 svc ms");
+        double seconds = step.getTotal().getCount() / Math.max(step.getThroughput(), 1e-9);
+        for (Map.Entry<String, LoadRunner.OperationStats> entry : step.getOperations().entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), seconds);
+        }
+        printRow("all", step.getTotal(), seconds);
+    }
+    
+    private static void printRow(String name, LoadRunner.OperationStats stats, double seconds) {
+        if (stats.getCount() == 0) {
+            return;
+        }
+        System.out.printf("%-12s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %12.1f%n",
+                name, stats.getCount(), stats.getErrors(), stats.getCount() / seconds,
+                stats.latencyMillis(50), stats.latencyMillis(99), stats.latencyMillis(99.9),
+                stats.maxMillis(), stats.serviceTimeMillis(99));
+    }
+    
+    private static void summarize(List<LoadRunner.StepResult> steps, double p99SloMillis) {
+        System.out.printf("%n%10s %10s %9s %9s %9s %8s  %s%n",
+                "target", "achieved", "p50 ms", "p99 ms", "p99.9 ms", "errors", "verdict");
+        
+        LoadRunner.StepResult saturation = null;
+        for (LoadRunner.StepResult step : steps) {
+            LoadRunner.OperationStats total = step.getTotal();
+            boolean keptUp = step.getThroughput() >= step.getTargetRate() * KEPT_UP;
+            boolean withinSlo = total.latencyMillis(99) <= p99SloMillis;
+            boolean healthy = step.getErrorRate() <= MAX_ERROR_RATE;
+            boolean sustained = keptUp && withinSlo && healthy;
+            if (sustained && (saturation == null || step.getTargetRate() > saturation.getTargetRate())) {
+                saturation = step;
+            }
+            
+            String verdict = sustained ? "sustained"
+                    : !keptUp ? "fell behind"
+                    : !withinSlo ? "p99 over SLO"
+                    : "errors";
+            System.out.printf("%10.0f %10.0f %9.1f %9.1f %9.1f %7.2f%%  %s%n",
+                    step.getTargetRate(), step.getThroughput(), total.latencyMillis(50),
+                    total.latencyMillis(99), total.latencyMillis(99.9), step.getErrorRate() * 100, verdict);
+        }
+        
+        if (saturation != null) {
+            System.out.printf("%nSaturation point: ~%.0f ops/s on %d processors (p99 SLO %.0f ms)%n",
+                    saturation.getTargetRate(), Runtime.getRuntime().availableProcessors(), p99SloMillis);
+        } else {
+            System.out.printf("%nNo step was sustained within the p99 SLO of %.0f ms; try lower rates%n", p99SloMillis);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.catalog.loadtest;
+
+import com.catalog.datagen.EmbeddedCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The operations a simulated user performs, each one or two HTTP calls shaped like the frontend's:
+ * <ul>
+ *   <li>{@code browse} - products of a category</li>
+ *   <li>{@code filter} - a category's filters, then its products narrowed by one filter value</li>
+ *   <li>{@code search} - keyword search, half of the time within a category</li>
+ *   <li>{@code detail} - one product</li>
+ *   <li>{@code images} - a product's image list</li>
+ *   <li>{@code admin-edit} - load a product as admin and save it with a new price</li>
+ *   <li>{@code login} - owner sign-in (BCrypt verification)</li>
+ * </ul>
+ * Catalog facts the operations need (categories, their filters, search words) are read through the
+ * public API once, before the load starts.
+ */
+public class Workload {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final String[] operationNames;
+    private final int[] cumulativeWeights;
+    
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, List<FilterChoice>> filtersByCategory = new LinkedHashMap<>();
+    private final List<String> searchTerms = new ArrayList<>();
+    private final int productCount;
+    private String token;
+    
+    public Workload(String baseUrl, int productCount, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.productCount = productCount;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        
+        operations.put("browse", this::browse);
+        operations.put("filter", this::filter);
+        operations.put("search", this::search);
+        operations.put("detail", this::detail);
+        operations.put("images", this::images);
+        operations.put("admin-edit", this::adminEdit);
+        operations.put("login", this::login);
+        
+        operationNames = new String[mix.size()];
+        cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!operations.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown operation '" + entry.getKey() + "', expected one of " + operations.keySet());
+            }
+            total += entry.getValue();
+            operationNames[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Operation mix has no positive weights");
+        }
+    }
+    
+    /**
+     * Signs in and reads the catalog facts the operations pick from.
+     */
+    public void prepare() throws IOException, InterruptedException {
+        if (!login(new SplittableRandom(0))) {
+            throw new IllegalStateException("Owner sign-in failed");
+        }
+        
+        for (JsonNode category : get("/api/categories")) {
+            categories.add(category.path("name").asText());
+        }
+        for (String category : categories) {
+            List<FilterChoice> choices = new ArrayList<>();
+            for (JsonNode filter : get("/api/filters?category=" + encode(category))) {
+                List<String> values = new ArrayList<>();
+                filter.path("filterValues").forEach(value -> values.add(value.path("value").asText()));
+                choices.add(new FilterChoice(filter.path("name").asText(), values));
+            }
+            filtersByCategory.put(category, choices);
+        }
+        
+        // Search words come from real product names so searches have hits
+        for (int id = 1; id <= Math.min(productCount, 200); id += 7) {
+            for (String word : get("/api/products/" + id).path("name").asText().split("\\s+")) {
+                if (word.length() > 3 && !searchTerms.contains(word.toLowerCase())) {
+                    searchTerms.add(word.toLowerCase());
+                }
+            }
+        }
+        
+        if (categories.isEmpty() || searchTerms.isEmpty()) {
+            throw new IllegalStateException("Catalog is empty; nothing to load-test");
+        }
+    }
+    
+    public String[] getOperationNames() {
+        return operationNames;
+    }
+    
+    /**
+     * Picks an operation according to the mix weights.
+     */
+    public String pick(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operationNames[i];
+            }
+        }
+        return operationNames[operationNames.length - 1];
+    }
+    
+    /**
+     * Runs one operation.
+     *
+     * @return whether every call in it succeeded
+     */
+    public boolean execute(String operation, SplittableRandom random) {
+        try {
+            return operations.get(operation).run(random);
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private boolean browse(SplittableRandom random) throws IOException, InterruptedException {
+        return ok(send(request("/api/products?category=" + encode(category(random)))));
+    }
+    
+    private boolean filter(SplittableRandom random) throws IOException, InterruptedException {
+        String category = category(random);
+        if (!ok(send(request("/api/filters?category=" + encode(category))))) {
+            return false;
+        }
+        
+        List<FilterChoice> choices = filtersByCategory.get(category);
+        if (choices.isEmpty()) {
+            return browse(random);
+        }
+        FilterChoice choice = choices.get(random.nextInt(choices.size()));
+        String value = choice.values.get(random.nextInt(choice.values.size()));
+        return ok(send(request("/api/products?category=" + encode(category)
+                + "&" + encode(choice.name) + "=" + encode(value))));
+    }
+    
+    private boolean search(SplittableRandom random) throws IOException, InterruptedException {
+        String path = "/api/products?search=" + encode(searchTerms.get(random.nextInt(searchTerms.size())));
+        if (random.nextBoolean()) {
+            path += "&category=" + encode(category(random));
+        }
+        return ok(send(request(path)));
+    }
+    
+    private boolean detail(SplittableRandom random) throws IOException, InterruptedException {
+        return ok(send(request("/api/products/" + productId(random))));
+    }
+    
+    private boolean images(SplittableRandom random) throws IOException, InterruptedException {
+        return ok(send(request("/api/products/" + productId(random) + "/images")));
+    }
+    
+    private boolean adminEdit(SplittableRandom random) throws IOException, InterruptedException {
+        long id = productId(random);
+        HttpResponse<String> loaded = send(authorized(request("/api/admin/products/" + id)));
+        if (!ok(loaded)) {
+            return false;
+        }
+        
+        JsonNode product = objectMapper.readTree(loaded.body());
+        ObjectNode update = objectMapper.createObjectNode();
+        update.put("name", product.path("name").asText());
+        update.put("description", product.path("description").asText());
+        update.put("price", String.format("%.2f", 5 + random.nextDouble() * 995));
+        if (!product.path("costPrice").isNull() && !product.path("costPrice").isMissingNode()) {
+            update.put("costPrice", product.path("costPrice").asText());
+        }
+        update.put("category", product.path("category").asText());
+        update.put("inStock", product.path("inStock").asBoolean());
+        
+        HttpRequest save = authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/products/" + id)))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(update)))
+                .build();
+        return ok(send(save));
+    }
+    
+    private boolean login(SplittableRandom random) throws IOException, InterruptedException {
+        ObjectNode credentials = objectMapper.createObjectNode();
+        credentials.put("email", EmbeddedCatalog.OWNER_EMAIL);
+        credentials.put("password", EmbeddedCatalog.OWNER_PASSWORD);
+        
+        HttpRequest signin = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(credentials)))
+                .build();
+        HttpResponse<String> response = send(signin);
+        if (!ok(response)) {
+            return false;
+        }
+        if (token == null) {
+            token = objectMapper.readTree(response.body()).path("token").asText();
+        }
+        return true;
+    }
+    
+    private String category(SplittableRandom random) {
+        return categories.get(random.nextInt(categories.size()));
+    }
+    
+    private long productId(SplittableRandom random) {
+        return 1 + random.nextInt(productCount);
+    }
+    
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(request(path));
+        if (!ok(response)) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+    
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + token);
+    }
+    
+    private HttpRequest authorized(HttpRequest request) {
+        return authorized(HttpRequest.newBuilder(request, (name, value) -> true)).build();
+    }
+    
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static boolean ok(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    @FunctionalInterface
+    private interface Operation {
+        boolean run(SplittableRandom random) throws IOException, InterruptedException;
+    }
+    
+    private static class FilterChoice {
+        
+        private final String name;
+        private final List<String> values;
+        
+        FilterChoice(String name, List<String> values) {
+            this.name = name;
+            this.values = values;
+        }
+    }
+}
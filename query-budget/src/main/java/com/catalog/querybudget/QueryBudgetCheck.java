@@ -0,0 +1,435 @@
+package com.catalog.querybudget;
+
+import com.catalog.config.QueryCountFilter;
+import com.catalog.config.QueryCountingDataSource;
+import com.catalog.datagen.CatalogDataGenerator;
+import com.catalog.datagen.EmbeddedCatalog;
+import com.catalog.service.ProductStatsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives every API endpoint, apart from those listed in {@link #NOT_BUDGETED}, against an
+ * {@link EmbeddedCatalog} with per-request SQL counting enabled and compares each call's statement
+ * count with its budget.
+ * <p>
+ * Budgets are absolute and independent of catalog size: the catalog holds {@value #PRODUCTS}
+ * products with several filter values and images each, so a per-row query (N+1) anywhere in a
+ * listing blows through its budget. Statements with the same shape issued more than
+ * {@value #REPEAT_WARNING} times in one call are reported as well. Admin and owner calls include the
+ * user lookup done by the JWT filter; other calls take the user from the access token. Product
+ * writes insert one row per assigned filter value (identity keys rule out insert batching), so their
+ * budgets are for the three values sent here.
+ * <p>
+ * Exits non-zero when any call fails or exceeds its budget.
+ */
+public class QueryBudgetCheck {
+    
+    private static final int PRODUCTS = 50;
+    private static final int REPEAT_WARNING = 2;
+    private static final String USER_EMAIL = "budget.user@catalog.test";
+    
+    /**
+     * Endpoints and background work deliberately left out, each with the reason; printed with the
+     * report so the coverage gap stays visible.
+     */
+    private static final Map<String, String> NOT_BUDGETED = new LinkedHashMap<>();
+    
+    static {
+        NOT_BUDGETED.put("GET /api/events", "event stream that never completes; subscribing runs no SQL");
+        NOT_BUDGETED.put("POST, PUT, DELETE /api/products[/{id}]",
+                "same service calls as the admin product writes budgeted above");
+        NOT_BUDGETED.put("GET / and the single-page app routes", "forward to index.html without database access");
+        NOT_BUDGETED.put("audit-writer thread", "batch sizes depend on timing; see /api/owner/audit/statistics");
+    }
+    
+    private final EmbeddedCatalog catalog;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<List<String>> lastStatements = new AtomicReference<>(List.of());
+    private final List<Result> results = new ArrayList<>();
+    
+    private String token;
+    
+    private QueryBudgetCheck(EmbeddedCatalog catalog) {
+        this.catalog = catalog;
+        // The JDK client, unlike HttpURLConnection, can send PATCH
+        this.restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(org.springframework.http.client.ClientHttpResponse response) {
+                return false;
+            }
+        });
+        catalog.getContext().getBean(QueryCountFilter.class)
+                .addListener((method, uri, statements) -> lastStatements.set(statements));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        boolean passed;
+        try (EmbeddedCatalog catalog = EmbeddedCatalog.start(PRODUCTS, "--catalog.query-count.enabled=true",
+                "--catalog.changes.settle-ms=0",
+                // Mail to the budget user fails at once instead of waiting on a real server
+                "--spring.mail.host=localhost", "--spring.mail.port=1")) {
+            QueryBudgetCheck check = new QueryBudgetCheck(catalog);
+            check.run();
+            passed = check.report();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+    
+    private void run() throws IOException {
+        String category = CatalogDataGenerator.categoryName(1);
+        String filter = CatalogDataGenerator.filterName(1);
+        String value = CatalogDataGenerator.valueName(1);
+        
+        // Public catalog browsing
+        call("GET /api/products (all)", 3, HttpMethod.GET, "/api/products", null);
+        call("GET /api/products?category", 3, HttpMethod.GET, "/api/products?category={c}", null, category);
+        call("GET /api/products?search", 3, HttpMethod.GET, "/api/products?search=e", null);
+        call("GET /api/products?filter&sort", 5, HttpMethod.GET,
+                "/api/products?sort=price_asc&" + filter + "={v}", null, value);
+        call("GET /api/products/{id}", 4, HttpMethod.GET, "/api/products/1", null);
+        // Unchanged since the previous read: only its updatedAt is looked up
+        call("GET /api/products/{id} (cached)", 1, HttpMethod.GET, "/api/products/1", null);
+        call("GET /api/products/batch", 3, HttpMethod.GET, "/api/products/batch?ids=3,1,2,999999", null);
+        call("POST /api/products/batch", 3, HttpMethod.POST, "/api/products/batch",
+                Map.of("ids", List.of(5, 4, 6, 7, 8)));
+        // The first lookup also loads all filter assignments into the similarity index
+        call("GET /api/products/{id}/similar (index build)", 4, HttpMethod.GET, "/api/products/1/similar", null);
+        call("GET /api/products/{id}/similar", 3, HttpMethod.GET, "/api/products/2/similar", null);
+        call("GET /api/products/{id}/images", 2, HttpMethod.GET, "/api/products/1/images", null);
+        call("GET /api/products/categories", 1, HttpMethod.GET, "/api/products/categories", null);
+        call("GET /api/products/in-stock", 3, HttpMethod.GET, "/api/products/in-stock", null);
+        call("GET /api/categories", 1, HttpMethod.GET, "/api/categories", null);
+        call("GET /api/categories/names", 1, HttpMethod.GET, "/api/categories/names", null);
+        call("GET /api/filters", 1, HttpMethod.GET, "/api/filters", null);
+        call("GET /api/filters?category", 1, HttpMethod.GET, "/api/filters?category={c}", null, category);
+        
+        // Background writes, run here rather than on their own thread so they can be counted. The view
+        // and impression counts gathered above go out as one batched upsert
+        background("ProductStatsService.flush", 1,
+                () -> catalog.getContext().getBean(ProductStatsService.class).flush());
+        
+        // Authentication
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("email", EmbeddedCatalog.OWNER_EMAIL);
+        credentials.put("password", EmbeddedCatalog.OWNER_PASSWORD);
+        // One user load: the password is checked against it, not against a second lookup; then the
+        // refresh token is stored
+        JsonNode login = call("POST /api/auth/signin", 2, HttpMethod.POST, "/api/auth/signin", credentials);
+        token = login.path("token").asText();
+        // The access token carries the user, so checking it needs no query
+        call("POST /api/auth/check-auth", 0, HttpMethod.POST, "/api/auth/check-auth", null);
+        Map<String, Object> refresh = new LinkedHashMap<>();
+        refresh.put("refreshToken", login.path("refreshToken").asText());
+        // Token lookup with its user, marking it used, storing its successor
+        JsonNode renewed = call("POST /api/auth/refresh", 3, HttpMethod.POST, "/api/auth/refresh", refresh);
+        token = renewed.path("token").asText();
+        
+        // Admin product management
+        call("GET /api/admin/products", 4, HttpMethod.GET, "/api/admin/products", null);
+        call("GET /api/admin/products/{id}", 4, HttpMethod.GET, "/api/admin/products/1", null);
+        
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("name", "Budget Widget");
+        product.put("description", "Created by the query budget check");
+        product.put("price", "19.99");
+        product.put("costPrice", "7.50");
+        product.put("category", category);
+        product.put("inStock", true);
+        product.put("filterValues", Map.of(
+                filter, List.of(value, CatalogDataGenerator.valueName(2)),
+                CatalogDataGenerator.filterName(2), List.of(value)));
+        // First write to touch these filters: their value collections are not in the second-level
+        // cache yet (one load each); the update below finds them cached. Writes to a product's
+        // filters or images also move its updatedAt, which keys the product detail cache, and append
+        // to the change log
+        JsonNode created = call("POST /api/admin/products", 13, HttpMethod.POST, "/api/admin/products", product);
+        long productId = created.path("id").asLong();
+        
+        product.put("price", "21.99");
+        call("PUT /api/admin/products/{id}", 12, HttpMethod.PUT, "/api/admin/products/" + productId, product);
+        call("GET /api/products/changes", 4, HttpMethod.GET, "/api/products/changes?since=0", null);
+        
+        // The whole category in one price check, one UPDATE and one change log INSERT ... SELECT
+        Map<String, Object> bulkUpdate = new LinkedHashMap<>();
+        bulkUpdate.put("category", category);
+        bulkUpdate.put("filters", Map.of(filter, List.of(value)));
+        bulkUpdate.put("priceMode", "PERCENT");
+        bulkUpdate.put("priceValue", 5);
+        call("POST /api/admin/products/bulk-update", 4, HttpMethod.POST, "/api/admin/products/bulk-update", bulkUpdate);
+        
+        // Grid edit of three prices: one existence check, one batched UPDATE, one change log
+        // INSERT ... SELECT, and the reload with its mapper queries for the response
+        List<Map<String, Object>> patches = List.of(
+                Map.of("id", 1, "price", "11.50"),
+                Map.of("id", 2, "price", "12.50"),
+                Map.of("id", 3, "price", "13.50"));
+        call("PATCH /api/admin/products", 7, HttpMethod.PATCH, "/api/admin/products", patches);
+        
+        // Admin image management
+        JsonNode image = upload("POST /api/admin/products/{id}/images", 6, "/api/admin/products/" + productId + "/images");
+        long imageId = image.path("id").asLong();
+        call("GET /api/admin/products/{id}/images", 3, HttpMethod.GET,
+                "/api/admin/products/" + productId + "/images", null);
+        call("PUT /api/admin/products/{id}/images/{imageId}/primary", 6, HttpMethod.PUT,
+                "/api/admin/products/" + productId + "/images/" + imageId + "/primary", null);
+        call("PUT /api/admin/products/{id}/images/{imageId}", 5, HttpMethod.PUT,
+                "/api/admin/products/" + productId + "/images/" + imageId + "?altText=Renamed", null);
+        call("DELETE /api/admin/products/{id}/images/{imageId}", 6, HttpMethod.DELETE,
+                "/api/admin/products/" + productId + "/images/" + imageId, null);
+        call("DELETE /api/admin/products/{id}", 7, HttpMethod.DELETE, "/api/admin/products/" + productId, null);
+        
+        // Admin categories
+        call("GET /api/admin/categories", 2, HttpMethod.GET, "/api/admin/categories", null);
+        call("GET /api/admin/categories/{id}", 1, HttpMethod.GET, "/api/admin/categories/1", null);
+        call("GET /api/admin/categories/{id}/filters", 2, HttpMethod.GET, "/api/admin/categories/1/filters", null);
+        Map<String, Object> newCategory = new LinkedHashMap<>();
+        newCategory.put("name", "Budget Category");
+        newCategory.put("description", "Created by the query budget check");
+        JsonNode savedCategory = call("POST /api/admin/categories", 3, HttpMethod.POST, "/api/admin/categories", newCategory);
+        long categoryId = savedCategory.path("id").asLong();
+        newCategory.put("description", "Updated by the query budget check");
+        call("PUT /api/admin/categories/{id}", 3, HttpMethod.PUT, "/api/admin/categories/" + categoryId, newCategory);
+        // One row per assigned filter either way, as for product filter values
+        call("POST /api/admin/categories/{id}/filters", 5, HttpMethod.POST,
+                "/api/admin/categories/" + categoryId + "/filters", List.of(1, 2, 3));
+        // Assignments are not removed with the category, so they are cleared first
+        call("POST /api/admin/categories/{id}/filters (clear)", 5, HttpMethod.POST,
+                "/api/admin/categories/" + categoryId + "/filters", List.of());
+        call("DELETE /api/admin/categories/{id}", 5, HttpMethod.DELETE, "/api/admin/categories/" + categoryId, null);
+        
+        // Admin filters and filter values
+        call("GET /api/admin/filters", 2, HttpMethod.GET, "/api/admin/filters", null);
+        call("GET /api/admin/filters/{id}", 1, HttpMethod.GET, "/api/admin/filters/1", null);
+        call("GET /api/admin/filters/{id}/values", 2, HttpMethod.GET, "/api/admin/filters/1/values", null);
+        Map<String, Object> newFilter = new LinkedHashMap<>();
+        newFilter.put("name", "budget_filter");
+        newFilter.put("displayName", "Budget Filter");
+        JsonNode savedFilter = call("POST /api/admin/filters", 3, HttpMethod.POST, "/api/admin/filters", newFilter);
+        long filterId = savedFilter.path("id").asLong();
+        newFilter.put("displayName", "Budget Filter (renamed)");
+        call("PUT /api/admin/filters/{id}", 4, HttpMethod.PUT, "/api/admin/filters/" + filterId, newFilter);
+        Map<String, Object> newValue = new LinkedHashMap<>();
+        newValue.put("value", "budget");
+        newValue.put("displayValue", "Budget");
+        JsonNode savedValue = call("POST /api/admin/filters/{id}/values", 3, HttpMethod.POST,
+                "/api/admin/filters/" + filterId + "/values", newValue);
+        long valueId = savedValue.path("id").asLong();
+        newValue.put("displayValue", "Budget (renamed)");
+        call("PUT /api/admin/filter-values/{id}", 5, HttpMethod.PUT, "/api/admin/filter-values/" + valueId, newValue);
+        call("DELETE /api/admin/filter-values/{id}", 3, HttpMethod.DELETE, "/api/admin/filter-values/" + valueId, null);
+        call("DELETE /api/admin/filters/{id}", 5, HttpMethod.DELETE, "/api/admin/filters/" + filterId, null);
+        
+        // Admin statistics: only the user lookup; product stats also read the most viewed products
+        call("GET /api/admin/cache/statistics", 1, HttpMethod.GET, "/api/admin/cache/statistics", null);
+        call("DELETE /api/admin/cache/statistics", 1, HttpMethod.DELETE, "/api/admin/cache/statistics", null);
+        call("GET /api/admin/snapshots/statistics", 1, HttpMethod.GET, "/api/admin/snapshots/statistics", null);
+        call("GET /api/admin/events/statistics", 1, HttpMethod.GET, "/api/admin/events/statistics", null);
+        call("GET /api/admin/similar-products/statistics", 1, HttpMethod.GET,
+                "/api/admin/similar-products/statistics", null);
+        call("GET /api/admin/products/stats", 3, HttpMethod.GET, "/api/admin/products/stats", null);
+        call("GET /api/admin/analytics/top-queries", 1, HttpMethod.GET, "/api/admin/analytics/top-queries", null);
+        call("DELETE /api/admin/analytics/top-queries", 1, HttpMethod.DELETE, "/api/admin/analytics/top-queries", null);
+        
+        // Owner user management. A new user is taken through activation and a password reset, then
+        // signs in and reads their own profile
+        call("GET /api/owner/users", 2, HttpMethod.GET, "/api/owner/users", null);
+        call("GET /api/owner/users/{id}", 2, HttpMethod.GET, "/api/owner/users/1", null);
+        Map<String, Object> newUser = new LinkedHashMap<>();
+        newUser.put("email", USER_EMAIL);
+        newUser.put("firstName", "Budget");
+        newUser.put("lastName", "User");
+        newUser.put("role", "USER");
+        JsonNode createdUser = call("POST /api/owner/users", 3, HttpMethod.POST, "/api/owner/users", newUser);
+        String userPath = "/api/owner/users/" + createdUser.path("id").asLong();
+        newUser.put("enabled", true);
+        newUser.put("phoneNumber", "555-0100");
+        call("PUT /api/owner/users/{id}", 3, HttpMethod.PUT, userPath, newUser);
+        call("PUT /api/owner/users/{id}/role", 4, HttpMethod.PUT, userPath + "/role", Map.of("role", "ADMIN"));
+        call("PUT /api/owner/users/{id}/status", 3, HttpMethod.PUT, userPath + "/status", Map.of("enabled", true));
+        upload("POST /api/owner/users/{id}/profile-picture", 3, userPath + "/profile-picture");
+        upload("POST /api/owner/users/{id}/id-document1", 3, userPath + "/id-document1");
+        upload("POST /api/owner/users/{id}/id-document2", 3, userPath + "/id-document2");
+        JsonNode temporary = call("POST /api/owner/users/{id}/reset-password", 4, HttpMethod.POST,
+                userPath + "/reset-password", null);
+        call("GET /api/owner/audit", 2, HttpMethod.GET, "/api/owner/audit", null);
+        call("GET /api/owner/audit/statistics", 1, HttpMethod.GET, "/api/owner/audit/statistics", null);
+        call("GET /api/owner/auth/statistics", 1, HttpMethod.GET, "/api/owner/auth/statistics", null);
+        String ownerToken = token;
+        token = null;
+        
+        Map<String, Object> activation = new LinkedHashMap<>();
+        activation.put("email", USER_EMAIL);
+        activation.put("temporaryPassword", temporary.path("temporaryPassword").asText());
+        activation.put("newPassword", "activated-password");
+        activation.put("confirmPassword", "activated-password");
+        call("POST /api/auth/activate-account", 2, HttpMethod.POST, "/api/auth/activate-account", activation);
+        
+        Map<String, Object> forgotten = new LinkedHashMap<>();
+        forgotten.put("email", USER_EMAIL);
+        forgotten.put("firstName", "Budget");
+        forgotten.put("lastName", "User");
+        call("POST /api/auth/forgot-password", 4, HttpMethod.POST, "/api/auth/forgot-password", forgotten);
+        // The reset link would arrive by mail
+        String resetToken = catalog.getContext().getBean(JdbcTemplate.class).queryForObject(
+                "SELECT token FROM password_reset_tokens WHERE used = FALSE", String.class);
+        call("GET /api/auth/validate-reset-token", 1, HttpMethod.GET,
+                "/api/auth/validate-reset-token?token={t}", null, resetToken);
+        Map<String, Object> reset = new LinkedHashMap<>();
+        reset.put("token", resetToken);
+        reset.put("newPassword", "reset-password");
+        reset.put("confirmPassword", "reset-password");
+        call("POST /api/auth/reset-password", 6, HttpMethod.POST, "/api/auth/reset-password", reset);
+        
+        Map<String, Object> userCredentials = new LinkedHashMap<>();
+        userCredentials.put("email", USER_EMAIL);
+        userCredentials.put("password", "reset-password");
+        JsonNode userLogin = call("POST /api/auth/signin (user)", 2, HttpMethod.POST, "/api/auth/signin", userCredentials);
+        token = userLogin.path("token").asText();
+        call("GET /api/user/profile", 1, HttpMethod.GET, "/api/user/profile", null);
+        Map<String, Object> passwordChange = new LinkedHashMap<>();
+        passwordChange.put("currentPassword", "reset-password");
+        passwordChange.put("newPassword", "changed-password");
+        passwordChange.put("confirmPassword", "changed-password");
+        JsonNode changed = call("POST /api/auth/change-password", 4, HttpMethod.POST,
+                "/api/auth/change-password", passwordChange);
+        call("POST /api/auth/logout", 2, HttpMethod.POST, "/api/auth/logout",
+                Map.of("refreshToken", changed.path("refreshToken").asText()));
+        
+        // Password reset tokens are not removed with their user, so a fresh user is deleted
+        token = ownerToken;
+        newUser.put("email", "budget.deleted@catalog.test");
+        JsonNode deletedUser = call("POST /api/owner/users (to delete)", 3, HttpMethod.POST, "/api/owner/users", newUser);
+        call("DELETE /api/owner/users/{id}", 3, HttpMethod.DELETE,
+                "/api/owner/users/" + deletedUser.path("id").asLong(), null);
+    }
+    
+    private JsonNode call(String name, int budget, HttpMethod method, String path, Object body,
+                          Object... uriVariables) throws IOException {
+        HttpHeaders headers = headers();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return exchange(name, budget, method, path, new HttpEntity<>(body, headers), uriVariables);
+    }
+    
+    private JsonNode upload(String name, int budget, String path) throws IOException {
+        HttpHeaders partHeaders = new HttpHeaders();
+        partHeaders.setContentType(MediaType.IMAGE_PNG);
+        ByteArrayResource file = new ByteArrayResource(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'}) {
+            @Override
+            public String getFilename() {
+                return "budget.png";
+            }
+        };
+        
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("file", new HttpEntity<>(file, partHeaders));
+        parts.add("altText", "Budget image");
+        
+        HttpHeaders headers = headers();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return exchange(name, budget, HttpMethod.POST, path, new HttpEntity<>(parts, headers));
+    }
+    
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return headers;
+    }
+    
+    private JsonNode exchange(String name, int budget, HttpMethod method, String path, HttpEntity<?> entity,
+                              Object... uriVariables) throws IOException {
+        lastStatements.set(List.of());
+        ResponseEntity<String> response = restTemplate.exchange(
+                catalog.getBaseUrl() + path, method, entity, String.class, uriVariables);
+        
+        Result result = new Result(name, budget, response.getStatusCode().value(), lastStatements.get());
+        results.add(result);
+        
+        String body = response.getBody();
+        return body != null && !body.isEmpty() && body.charAt(0) == '{'
+                ? objectMapper.readTree(body)
+                : objectMapper.createObjectNode();
+    }
+    
+    private void background(String name, int budget, Runnable work) {
+        QueryCountingDataSource.start();
+        try {
+            work.run();
+        } finally {
+            results.add(new Result(name, budget, 200, QueryCountingDataSource.stop()));
+        }
+    }
+    
+    private boolean report() {
+        boolean passed = true;
+        System.out.printf("%n%-56s %6s %6s %6s  %s%n", "Call", "Status", "Stmts", "Budget", "Result");
+        for (Result result : results) {
+            boolean ok = result.isSuccessful() && result.statements.size() <= result.budget;
+            passed &= ok;
+            System.out.printf("%-56s %6d %6d %6d  %s%n", result.name, result.status,
+                    result.statements.size(), result.budget, ok ? "ok" : "FAIL");
+            result.repeatedShapes().forEach((shape, count) ->
+                    System.out.printf("    %dx %s%n", count, shape));
+        }
+        System.out.printf("%nNot budgeted:%n");
+        NOT_BUDGETED.forEach((name, reason) -> System.out.printf("    %-52s %s%n", name, reason));
+        System.out.println(passed ? "\nAll calls within their query budgets." : "\nQuery budget check FAILED.");
+        return passed;
+    }
+    
+    private static class Result {
+        
+        private final String name;
+        private final int budget;
+        private final int status;
+        private final List<String> statements;
+        
+        Result(String name, int budget, int status, List<String> statements) {
+            this.name = name;
+            this.budget = budget;
+            this.status = status;
+            this.statements = statements;
+        }
+        
+        boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+        
+        /**
+         * Statement shapes (whitespace collapsed, IN lists folded) seen more than
+         * {@value QueryBudgetCheck#REPEAT_WARNING} times, the usual signature of an N+1.
+         */
+        Map<String, Integer> repeatedShapes() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String sql : statements) {
+                String shape = sql.replaceAll("\\s+", " ").replaceAll("\\(\\?(,\\s*\\?)*\\)", "(?..)").trim();
+                counts.merge(shape, 1, Integer::sum);
+            }
+            counts.values().removeIf(count -> count <= REPEAT_WARNING);
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.catalog.querybudget;
+
+import com.catalog.config.ReplicaRoutingDataSource;
+import com.catalog.datagen.EmbeddedCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks read-replica routing against an {@link EmbeddedCatalog} with one replica. The embedded
+ * replica only catches up when told to, so a product edit makes the two databases disagree and the
+ * price each caller sees shows where its read was served from:
+ * <ul>
+ *   <li>anonymous reads go to the replica and see the old price,</li>
+ *   <li>the admin who made the edit reads from the primary and sees the new price,</li>
+ *   <li>once the stickiness window has passed, the admin is back on the replica,</li>
+ *   <li>after replication everyone sees the new price.</li>
+ * </ul>
+ * Exits non-zero when any expectation fails.
+ */
+public class ReplicaRoutingCheck {
+    
+    private static final int PRODUCTS = 20;
+    private static final long STICKY_MILLIS = 1500;
+    private static final long PRODUCT_ID = 1;
+    
+    private final EmbeddedCatalog catalog;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> failures = new ArrayList<>();
+    
+    private String token;
+    
+    private ReplicaRoutingCheck(EmbeddedCatalog catalog) {
+        this.catalog = catalog;
+        this.restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(org.springframework.http.client.ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+    
+    public static void main(String[] args) throws Exception {
+        boolean passed;
+        try (EmbeddedCatalog catalog = EmbeddedCatalog.start(PRODUCTS, 1,
+                "--catalog.replica.sticky-ms=" + STICKY_MILLIS, "--catalog.replica.check-interval-ms=200")) {
+            ReplicaRoutingCheck check = new ReplicaRoutingCheck(catalog);
+            check.run();
+            passed = check.report();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+    
+    private void run() throws Exception {
+        ObjectNode credentials = objectMapper.createObjectNode();
+        credentials.put("email", EmbeddedCatalog.OWNER_EMAIL);
+        credentials.put("password", EmbeddedCatalog.OWNER_PASSWORD);
+        token = exchange(HttpMethod.POST, "/api/auth/signin", credentials, false).path("token").asText();
+        
+        JsonNode product = exchange(HttpMethod.GET, "/api/admin/products/" + PRODUCT_ID, null, true);
+        BigDecimal oldPrice = product.path("price").decimalValue();
+        BigDecimal newPrice = oldPrice.add(BigDecimal.TEN);
+        
+        ObjectNode update = objectMapper.createObjectNode();
+        update.put("name", product.path("name").asText());
+        update.put("description", product.path("description").asText());
+        update.put("price", newPrice.toPlainString());
+        update.put("category", product.path("category").asText());
+        update.put("inStock", product.path("inStock").asBoolean());
+        exchange(HttpMethod.PUT, "/api/admin/products/" + PRODUCT_ID, update, true);
+        
+        expectPrice("anonymous read right after the edit (replica)", false, oldPrice);
+        expectPrice("admin read right after the edit (pinned to primary)", true, newPrice);
+        
+        Thread.sleep(STICKY_MILLIS + 500);
+        expectPrice("admin read after the stickiness window (replica)", true, oldPrice);
+        
+        catalog.replicate();
+        expectPrice("anonymous read after replication", false, newPrice);
+        expectPrice("admin read after replication", true, newPrice);
+        
+        ReplicaRoutingDataSource routing = catalog.getContext().getBean(ReplicaRoutingDataSource.class);
+        System.out.printf("Read-only transactions: %d on replicas, %d on the primary%n",
+                routing.getReplicaReads(), routing.getPrimaryReads());
+        if (routing.getReplicaReads() == 0) {
+            failures.add("no read-only transaction was routed to the replica");
+        }
+    }
+    
+    private void expectPrice(String description, boolean admin, BigDecimal expected) throws IOException {
+        String path = (admin ? "/api/admin/products/" : "/api/products/") + PRODUCT_ID;
+        BigDecimal actual = exchange(HttpMethod.GET, path, null, admin).path("price").decimalValue();
+        boolean ok = actual.compareTo(expected) == 0;
+        System.out.printf("%-55s expected %10s, saw %10s  %s%n", description, expected, actual, ok ? "ok" : "FAILED");
+        if (!ok) {
+            failures.add(description + ": expected " + expected + ", saw " + actual);
+        }
+    }
+    
+    private JsonNode exchange(HttpMethod method, String path, Object body, boolean authorized) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (authorized) {
+            headers.setBearerAuth(token);
+        }
+        ResponseEntity<String> response = restTemplate.exchange(catalog.getBaseUrl() + path, method,
+                new HttpEntity<>(body, headers), String.class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            failures.add(method + " " + path + " returned " + response.getStatusCode().value());
+            return objectMapper.createObjectNode();
+        }
+        return objectMapper.readTree(response.getBody());
+    }
+    
+    private boolean report() {
+        if (failures.isEmpty()) {
+            System.out.println("Replica routing check passed");
+            return true;
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        return false;
+    }
+}
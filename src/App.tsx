@@ -88,6 +88,8 @@ function App() {
   const [showOwnerPanel, setShowOwnerPanel] = useState(false);
   const [selectedProductId, setSelectedProductId] = useState<number | null>(null);
   const [showUserMenu, setShowUserMenu] = useState(false);
+  // Catalog version from the server's change stream; moving it refetches the listing
+  const [catalogVersion, setCatalogVersion] = useState(0);
 
   useEffect(() => {
     // Check for existing token on app load
@@ -130,7 +132,20 @@ function App() {
   useEffect(() => {
     // Fetch products with current filters applied
     fetchProducts();
-  }, [searchTerm, selectedCategory, selectedFilters]);
+  }, [searchTerm, selectedCategory, selectedFilters, catalogVersion]);
+
+  useEffect(() => {
+    // Refresh when the catalog changes on the server instead of polling; EventSource reconnects on its own
+    const events = new EventSource('/api/events');
+    events.addEventListener('catalog-changed', (event) => {
+      const change = JSON.parse((event as MessageEvent).data);
+      setCatalogVersion(change.version);
+      if (change.entityType === 'category') {
+        fetchCategories();
+      }
+    });
+    return () => events.close();
+  }, []);
 
   const checkAuthStatus = async (authToken: string) => {
     try {
@@ -145,18 +160,73 @@ function App() {
         const userData = await response.json();
         setUser(userData);
       } else {
-        localStorage.removeItem('token');
-        setToken(null);
-        setUser(null);
+        // The access token is short-lived; renew it instead of asking for the password again
+        await refreshSession();
       }
     } catch (err) {
       console.error('Auth check failed:', err);
-      localStorage.removeItem('token');
-      setToken(null);
-      setUser(null);
+      clearSession();
+    }
+  };
+
+  const refreshSession = async () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!refreshToken) {
+      clearSession();
+      return;
+    }
+    try {
+      const response = await fetch('/api/auth/refresh', {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify({ refreshToken }),
+      });
+
+      if (response.ok) {
+        const data = await response.json();
+        localStorage.setItem('token', data.token);
+        localStorage.setItem('refreshToken', data.refreshToken);
+        setToken(data.token);
+        setUser(data);
+      } else if (localStorage.getItem('refreshToken') !== refreshToken) {
+        // Another tab renewed the session first and stored the new tokens
+        const sharedToken = localStorage.getItem('token');
+        if (sharedToken) {
+          checkAuthStatus(sharedToken);
+        }
+      } else {
+        clearSession();
+      }
+    } catch (err) {
+      console.error('Session refresh failed:', err);
     }
   };
 
+  const clearSession = () => {
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    setToken(null);
+    setUser(null);
+  };
+
+  useEffect(() => {
+    // Renew the access token a minute before it expires
+    if (!token) {
+      return;
+    }
+    let expiresAt: number;
+    try {
+      const payload = JSON.parse(atob(token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
+      expiresAt = payload.exp * 1000;
+    } catch (err) {
+      return;
+    }
+    const timer = setTimeout(refreshSession, Math.max(expiresAt - Date.now() - 60000, 0));
+    return () => clearTimeout(timer);
+  }, [token]);
+
   const fetchProducts = async () => {
     try {
       // Build query parameters
@@ -226,9 +296,17 @@ function App() {
   };
 
   const handleLogout = () => {
-    localStorage.removeItem('token');
-    setToken(null);
-    setUser(null);
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      fetch('/api/auth/logout', {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify({ refreshToken }),
+      }).catch((err) => console.error('Logout failed:', err));
+    }
+    clearSession();
     setShowAdminPanel(false);
     setShowOwnerPanel(false);
     setShowUserMenu(false);
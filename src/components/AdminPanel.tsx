@@ -85,6 +85,26 @@ const AdminPanel: React.FC<AdminPanelProps> = ({ token }) => {
     fetchFilters();
   }, []);
 
+  useEffect(() => {
+    // Pick up edits made in other sessions
+    const events = new EventSource('/api/events');
+    events.addEventListener('catalog-changed', (event) => {
+      const change = JSON.parse((event as MessageEvent).data);
+      if (change.entityType === 'product' || change.entityType === 'productImage') {
+        fetchProducts();
+      } else if (change.entityType === 'category') {
+        fetchCategories();
+      } else if (change.entityType === 'filter' || change.entityType === 'filterValue') {
+        fetchFilters();
+      } else {
+        fetchProducts();
+        fetchCategories();
+        fetchFilters();
+      }
+    });
+    return () => events.close();
+  }, []);
+
   const fetchProducts = async () => {
     try {
       const response = await fetch('/api/admin/products', {
@@ -80,6 +80,10 @@ const ChangePasswordModal: React.FC<ChangePasswordModalProps> = ({ isOpen, onClo
       const data = await response.json();
 
       if (response.ok) {
+        // Other sessions were signed out; this one continues with a new refresh token
+        if (data.refreshToken) {
+          localStorage.setItem('refreshToken', data.refreshToken);
+        }
         setSuccess(true);
         setFormData({
           currentPassword: '',
@@ -44,6 +44,7 @@ const LoginModal: React.FC<LoginModalProps> = ({ isOpen, onClose, onLogin }) =>
 
       if (response.ok) {
         localStorage.setItem('token', data.token);
+        localStorage.setItem('refreshToken', data.refreshToken);
         onLogin(data.token, data);
         onClose();
         setLoginForm({ email: '', password: '' });
@@ -39,40 +39,29 @@ const ProductDetails: React.FC<ProductDetailsProps> = ({ productId, onClose, for
 
   useEffect(() => {
     fetchProduct();
-    fetchProductImages();
   }, [productId]);
 
   const fetchProduct = async () => {
     try {
+      // The product detail already includes its images, in display order
       const response = await fetch(`/api/products/${productId}`);
       if (response.ok) {
         const data = await response.json();
         setProduct(data);
-      } else {
-        setError('Product not found');
-      }
-    } catch (err) {
-      setError('Failed to load product');
-    }
-  };
 
-  const fetchProductImages = async () => {
-    try {
-      // Use the public endpoint for viewing product images
-      const response = await fetch(`/api/products/${productId}/images`);
-      if (response.ok) {
-        const images = await response.json();
+        const images: ProductImage[] = data.images || [];
         setProductImages(images);
-        
+
         // Set initial selected image to primary image or first image
         if (images.length > 0) {
           const primaryIndex = images.findIndex((img: ProductImage) => img.isPrimary);
           setSelectedImageIndex(primaryIndex >= 0 ? primaryIndex : 0);
         }
+      } else {
+        setError('Product not found');
       }
     } catch (err) {
-      console.error('Failed to load product images:', err);
-      // Don't set error here as images are optional
+      setError('Failed to load product');
     } finally {
       setLoading(false);
     }
@@ -1,9 +1,51 @@
-import { defineConfig } from 'vite';
+import { defineConfig, type Plugin } from 'vite';
 import react from '@vitejs/plugin-react';
+import { readFileSync, writeFileSync } from 'node:fs';
+import { join } from 'node:path';
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib';
+
+// Writes .gz and .br next to each text asset of the production build, so the backend can
+// serve them as-is (Accept-Encoding negotiation) instead of compressing on every request.
+function precompress(): Plugin {
+  const compressible = /\.(js|mjs|css|html|svg|json|txt|map)$/;
+  const minSize = 1024;
+
+  return {
+    name: 'catalog-precompress',
+    apply: 'build',
+    writeBundle(options, bundle) {
+      const outDir = options.dir ?? 'dist';
+      for (const fileName of Object.keys(bundle)) {
+        if (!compressible.test(fileName)) {
+          continue;
+        }
+        const path = join(outDir, fileName);
+        const content = readFileSync(path);
+        if (content.length < minSize) {
+          continue;
+        }
+
+        const gzip = gzipSync(content, { level: 9 });
+        if (gzip.length < content.length) {
+          writeFileSync(`${path}.gz`, gzip);
+        }
+        const brotli = brotliCompressSync(content, {
+          params: {
+            [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+            [constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+          },
+        });
+        if (brotli.length < content.length) {
+          writeFileSync(`${path}.br`, brotli);
+        }
+      }
+    },
+  };
+}
 
 // https://vitejs.dev/config/
 export default defineConfig({
-  plugins: [react()],
+  plugins: [react(), precompress()],
   optimizeDeps: {
     exclude: ['lucide-react'],
   },